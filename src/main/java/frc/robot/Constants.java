@@ -7,6 +7,7 @@
 
 package frc.robot;
 
+import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.math.kinematics.DifferentialDriveKinematics;
 import edu.wpi.first.math.util.Units;
 
@@ -54,10 +55,48 @@ public final class Constants {
     public static final double kMaxSpeedMetersPerSecond = Units.feetToMeters(10.5); //Find good value
     public static final double kMaxAccelerationMetersPerSecondSquared = Math.pow(Units.feetToMeters(8), 2);
 
+    //Control thread, drive output, odometry and shooter velocity run here
+    public static final boolean kUseControlThread = true; //false runs them on the main thread
+    public static final double kControlPeriodSeconds = 0.005; //200Hz
+    public static final int kControlThreadPriority = 40; //Real time, 1 to 99
+    //Pinning needs taskset, the control thread gets one core and logging the other
+    public static final boolean kPinThreads = false;
+    public static final int kControlCore = 1;
+    public static final int kLoggerCore = 0;
+
+    //Loop rates for work that doesn't run with the 50Hz scheduler
+    public static final double kHopperPeriodSeconds = 0.01; //100Hz
+    public static final double kDiagnosticsPeriodSeconds = 0.2; //5Hz
+    //Pose history length, 256 samples at 200Hz is about 1.3 seconds
+    public static final int kPoseHistoryCapacity = 256;
+
+    //Pose Estimator, how much to trust wheel odometry vs vision
+    public static final double kStateStdDevXYMeters = 0.05;
+    public static final double kStateStdDevHeadingRadians = Units.degreesToRadians(1);
+    public static final double kVisionStdDevXYMeters = 0.5;
+    public static final double kVisionStdDevHeadingRadians = 1000; //Vision heading comes from the gyro, ignore it
+    public static final double kVisionMaxCorrectionMeters = 1.0;
+    //Past kVisionMaxCorrectionMeters, this many frames in a row agreeing on the correction are trusted anyway
+    public static final int kVisionOutlierFramesToAccept = 5;
+    public static final double kVisionOutlierAgreementMeters = 0.25;
+
     // Reasonable baseline values for a RAMSETE follower in units of meters and seconds
     public static final double kRamseteB = 2.0;
     public static final double kRamseteZeta = 0.7;
 
+    //Auto paths
+    public static final double kAutoMaxVoltage = 11; //Voltage constraint while following, leaves headroom under a sagging battery
+    public static final double kMaxCentripetalAccelerationMetersPerSecondSq = 3.0; //Find good value
+    //Trench run in the odometry frame (start on the initiation line), slow here while intaking
+    public static final double kTrenchMinXInches = 90;
+    public static final double kTrenchMaxXInches = 320;
+    public static final double kTrenchMinYInches = 40;
+    public static final double kTrenchMaxYInches = 95;
+    public static final double kTrenchMaxSpeedMetersPerSecond = kMinSpeedMetersPerSecond;
+    public static final String kTrajectoryAssetName = "trajectories.bin"; //In the deploy directory
+    public static final String kTrajectoryCacheDirectory = "trajectory-cache"; //Under /home/lvuser
+    public static final boolean kPackedSinglePrecision = true; //float32 paths, half the memory of double
+
     //Turret
     public static final double kP_TURRET = -0.03;
     public static final double TURRET_RATIO = 15155.2;
@@ -76,6 +115,9 @@ public final class Constants {
     public static final double SHOOTER_OUTPUT_TO_ENCODER_RATIO = .44;
     public static final double TICKS_PER_ROTATION = 2048.0;
     public static final int kLongCANTimeOutMs = 100; 
+    //Boot time device configuration
+    public static final int kDeviceConfigThreads = 4;
+    public static final double kDeviceConfigTimeoutSeconds = 5.0;
     public static final double kFlywheelTicksPerRevolution = 0;
 
     public static final double SHOOT_NEAR_SHOT_RPM = 4000;
@@ -85,10 +127,36 @@ public final class Constants {
 
     public static final double LIMELIGHT_IS_FAR_AREA = 0.70;
 
+    //Limelight mounting, measure on robot
+    public static final double kLimelightHeightInches = 22.0;
+    public static final double kLimelightMountAngleDeg = 30.0;
+    //Middle of the Power Port vision tape
+    public static final double kPowerPortTargetHeightInches = 89.75;
+    //Power Port in the odometry frame, assumes a start centered on the port at the initiation line
+    public static final Translation2d kPowerPortTranslation =
+            new Translation2d(Units.inchesToMeters(-120), Units.inchesToMeters(0));
+
     public static final double AUTO_SHOOT_NEAR_SHOT_RPM = 5000;
     public static final double AUTO_SHOOT_MID_SHOT_RPM =  5600;
     public static final double AUTO_SHOOT_FAR_SHOT_RPM = 4900;
 
+    //Logging, records wait in the ring until the writer thread wakes up
+    public static final int kLogBufferCapacity = 8192; //Power of two
+    public static final long kLogDrainPeriodMs = 50;
+
+    //Loop profiling, a section gets an overrun if it took at least this share of the slow loop
+    public static final double kProfilerOverrunShare = 0.25;
+    public static final double kProfilerPublishPeriodSeconds = 1.0;
+    public static final int kProfilerMaxSectionsPerLoop = 64;
+
+    //Loop budget, deferred work (dashboards, diagnostics) stops once the loop has used this much
+    public static final double kLoopBudgetSeconds = 0.015;
+    public static final int kMaxDeferredLoops = 25;
+
+    //Output coalescing, unchanged outputs are resent at least this often
+    public static final double kOutputEpsilon = 1e-4;
+    public static final double kOutputKeepAliveSeconds = 0.1;
+
     //Color Wheel
     public static final double COLOR_WHEEL_PPR = 0;
 
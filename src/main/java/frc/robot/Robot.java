@@ -8,17 +8,22 @@
 
 package frc.robot;
 
+import java.util.concurrent.locks.Lock;
+
 import edu.wpi.first.cameraserver.CameraServer;
 import edu.wpi.first.cscore.UsbCamera;
 import edu.wpi.first.cscore.VideoMode;
 import edu.wpi.first.math.geometry.Pose2d;
-import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.Filesystem;
+import edu.wpi.first.wpilibj.RobotController;
 import edu.wpi.first.wpilibj.TimedRobot;
 import edu.wpi.first.wpilibj.Timer;
-import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.robot.auto.AutoSelector;
+import frc.robot.auto.TrajectoryGenerator;
 import frc.robot.auto.routines.AutoBouncePath;
 import frc.robot.auto.routines.AutoDoNothing;
 import frc.robot.auto.routines.AutoHyperPath;
@@ -30,6 +35,16 @@ import frc.robot.auto.routines.AutoTrenchSteal;
 // import frc.robot.auto.routines.TestA;
 import frc.robot.subsystems.Drive;
 import frc.robot.subsystems.Turret.TurretControlMode;
+import frc.robot.util.AsyncLogger;
+import frc.robot.util.CanFrameScheduler;
+import frc.robot.util.ControlThread;
+import frc.robot.util.DeviceConfigurator;
+import frc.robot.util.LoopBudget;
+import frc.robot.util.LoopProfiler;
+import frc.robot.util.RateScheduler;
+import frc.robot.util.Telemetry;
+import frc.robot.vision.Limelight;
+import frc.robot.vision.VisionMeasurement;
 
 /**
  * The VM is configured to automatically run this class, and to call the functions corresponding to
@@ -39,7 +54,7 @@ import frc.robot.subsystems.Turret.TurretControlMode;
  */
 public class Robot extends TimedRobot {
   public Command m_autonomousCommand;
-  private SendableChooser<Command> autonTaskChooser;
+  private final AutoSelector autoSelector = new AutoSelector();
   public static double servoPose;
 
 
@@ -51,6 +66,32 @@ public class Robot extends TimedRobot {
      public static double targetX; //Horizontal Offset From Crosshair To Target (-27 degrees to 27 degrees)
      public static double targetY; //Vertical Offset From Crosshair To Target (-20.5 degrees to 20.5 degrees)
      public static double targetArea; //Target Area (0% of image to 100% of image)
+     public static double targetLatency; //Pipeline + capture latency in seconds
+     public static double targetTimestamp; //FPGA time the target image was captured, use with Drive.getPoseAt()
+     private final Limelight limelight = Limelight.getInstance();
+     private long lastVisionSequence = 0;
+
+     //Logged under the column names tools/PoseReplay reads
+     private final AsyncLogger.DoubleChannel tvLog = AsyncLogger.getInstance().doubleChannel("Vision/tv");
+     private final AsyncLogger.DoubleChannel txLog = AsyncLogger.getInstance().doubleChannel("Vision/tx");
+     private final AsyncLogger.DoubleChannel tyLog = AsyncLogger.getInstance().doubleChannel("Vision/ty");
+     private final AsyncLogger.DoubleChannel latencyLog = AsyncLogger.getInstance().doubleChannel("Vision/latency_s");
+     private final AsyncLogger.DoubleChannel turretLog = AsyncLogger.getInstance().doubleChannel("Vision/turret_deg");
+     //How long the auto routine took, to compare path changes in simulation
+     private final AsyncLogger.DoubleChannel autoDurationLog = AsyncLogger.getInstance().doubleChannel("Auto/Duration s");
+     private double autoStartTime = -1;
+
+     private final LoopProfiler profiler = LoopProfiler.getInstance();
+     private final LoopProfiler.Section limelightProfile = profiler.section("Limelight");
+     private final LoopProfiler.Section schedulerProfile = profiler.section("CommandScheduler");
+     private final LoopProfiler.Section deferredProfile = profiler.section("Deferred");
+     private final LoopBudget budget = LoopBudget.getInstance();
+     //Loops where the scheduler had to wait for an auto build
+     private long schedulerWaits = 0;
+
+     //Diagnostics, sampled at 5Hz
+     private double batteryVoltage;
+     private double canUtilization;
 
      public static double calculatedHoodPose;
      public static boolean Far;
@@ -62,26 +103,63 @@ public class Robot extends TimedRobot {
    */
   @Override
   public void robotInit() {
+    DataLogManager.start();
+    //Paths generated at build time, anything missing or stale is generated as the routines ask
+    TrajectoryGenerator trajectories = TrajectoryGenerator.getInstance();
+    trajectories.loadPrecomputed(Filesystem.getDeployDirectory().toPath().resolve(Constants.kTrajectoryAssetName));
+    trajectories.enableCache(Filesystem.getOperatingDirectory().toPath().resolve(Constants.kTrajectoryCacheDirectory));
     // Instantiate our RobotContainer.  This will perform all our button bindings, and put our
     // autonomous chooser on the dashboard.
     m_robotContainer = new RobotContainer();
+    //Subsystem constructors queued their CAN config, don't go on until it's all in
+    DeviceConfigurator.getInstance().awaitCompletion();
+    CanFrameScheduler.getInstance().resendAll();
+    profiler.bindCommandScheduler();
+
+    //Work that can wait a loop when the robot is busy, most important first. HIGH telemetry
+    //still goes out every loop
+    Telemetry telemetry = Telemetry.getInstance();
+    budget.registerAlways("Telemetry HIGH", telemetry::publishHigh);
+    budget.register("Telemetry", telemetry::publish);
+    budget.register("Profiler", profiler::publish);
+    budget.register("Rate Jitter", RateScheduler.getInstance()::publish);
+    budget.register("Control Thread", ControlThread.getInstance()::publish);
+    telemetry.addNumber("Battery Voltage", () -> batteryVoltage, Telemetry.Priority.NORMAL, 5);
+    telemetry.addNumber("CAN Utilization", () -> canUtilization, Telemetry.Priority.LOW, 5);
+    telemetry.addNumber("Loop Budget/Shed Loops", budget::getShedLoops, Telemetry.Priority.LOW, 1);
+    telemetry.addNumber("Loop Budget/Shed Telemetry", telemetry::getShed, Telemetry.Priority.LOW, 1);
+    telemetry.addNumber("Loop Budget/Shed Profiler", () -> budget.getShed("Profiler"), Telemetry.Priority.LOW, 1);
+    telemetry.addNumber("Trajectories/Precomputed Loaded", trajectories::getPrecomputedLoaded, Telemetry.Priority.LOW, 1);
+    telemetry.addNumber("Trajectories/Precomputed", trajectories::getPrecomputedHits, Telemetry.Priority.LOW, 1);
+    telemetry.addNumber("Trajectories/Precomputed Stale", trajectories::getPrecomputedStale, Telemetry.Priority.LOW, 1);
+    telemetry.addNumber("Trajectories/Cache Hits", trajectories::getCacheHits, Telemetry.Priority.LOW, 1);
+    telemetry.addNumber("Trajectories/Generated", trajectories::getGenerated, Telemetry.Priority.LOW, 1);
+    telemetry.addNumber("Trajectories/Saved ms", trajectories::getSavedMs, Telemetry.Priority.LOW, 1);
+    telemetry.addNumber("Trajectories/Precomputed Build ms", trajectories::getPrecomputedBuildMs, Telemetry.Priority.LOW, 1);
+
+    //Subsystems registered their own rates from their constructors
+    RateScheduler.getInstance().register("Diagnostics", Constants.kDiagnosticsPeriodSeconds, this::updateDiagnostics);
+    RateScheduler.getInstance().install(this);
+    ControlThread.getInstance().start();
+
     drive.resetOdometry(new Pose2d());
  
-    autonTaskChooser = new SendableChooser<>();
+    //Only the selected routine gets built, in the background while disabled
+    autoSelector.setDefaultOption("Do Nothing", AutoDoNothing::new);
 
-    autonTaskChooser.setDefaultOption("Do Nothing", new AutoDoNothing());
+    autoSelector.addOption("Trench 8 Ball Auto", AutoTrench8Ball::new);
+    autoSelector.addOption("Trench Steal 5 Ball Auto", AutoTrenchSteal::new);
 
-    autonTaskChooser.addOption("Trench 8 Ball Auto", new AutoTrench8Ball());
-    autonTaskChooser.addOption("Trench Steal 5 Ball Auto", new AutoTrenchSteal());
+    autoSelector.addOption("Rendezvous/Trench 10 Ball Auto", AutoRendezvousTrench10Ball::new);
+    autoSelector.addOption("Safe 3 Ball Auto", AutoSafe::new);
 
-    autonTaskChooser.addOption("Rendezvous/Trench 10 Ball Auto", new AutoRendezvousTrench10Ball());
-    autonTaskChooser.addOption("Safe 3 Ball Auto", new AutoSafe());
+    autoSelector.addOption("Bounce Path Auto", AutoBouncePath::new);
+    autoSelector.addOption("Slalom Path Auto", AutoSlalomPath::new);
+    autoSelector.addOption("Hyper Path Auto", AutoHyperPath::new);
 
-    autonTaskChooser.addOption("Bounce Path Auto", new AutoBouncePath());
-    autonTaskChooser.addOption("Slalom Path Auto", new AutoSlalomPath());
-    autonTaskChooser.addOption("Hyper Path Auto", new AutoHyperPath());
-
-    SmartDashboard.putData("Autonomous", autonTaskChooser);
+    autoSelector.publish("Autonomous");
+    telemetry.addBoolean("Auto Ready", autoSelector::isReady, Telemetry.Priority.NORMAL, 2);
+    telemetry.addNumber("Auto/Scheduler Waits", () -> schedulerWaits, Telemetry.Priority.LOW, 1);
 
     // UsbCamera usbCamera = CameraServer.startAutomaticCapture();
     // usbCamera.setVideoMode(VideoMode.PixelFormat.kYUYV, 320, 180, 60);
@@ -90,6 +168,11 @@ public class Robot extends TimedRobot {
     SmartDashboard.putBoolean("isFar", RobotContainer.hood.isFar);
   }
 
+  private void updateDiagnostics() {
+    batteryVoltage = RobotController.getBatteryVoltage();
+    canUtilization = RobotController.getCANStatus().percentBusUtilization;
+  }
+
   /**
    * This function is called every robot packet, no matter the mode. Use this for items like
    * diagnostics that you want ran during disabled, autonomous, teleoperated and test.
@@ -104,12 +187,44 @@ public class Robot extends TimedRobot {
     // and running subsystem periodic() methods. This must be called from the robot's periodic
     // block in order for anything in 
     //  Command-based framework to work.
+    budget.beginLoop();
+    profiler.beginLoop();
     //Gather Vision Info
-    targetValid = NetworkTableInstance.getDefault().getTable("limelight").getEntry("tv").getDouble(0);
-    targetX = NetworkTableInstance.getDefault().getTable("limelight").getEntry("tx").getDouble(0);
-    targetY = NetworkTableInstance.getDefault().getTable("limelight").getEntry("ty").getDouble(0);
-    targetArea = NetworkTableInstance.getDefault().getTable("limelight").getEntry("ta").getDouble(0);
-    CommandScheduler.getInstance().run();
+    limelightProfile.start();
+    Limelight.Frame frame = limelight.latest();
+    targetValid = frame.hasTarget() ? 1 : 0;
+    targetX = frame.txDeg();
+    targetY = frame.tyDeg();
+    targetArea = frame.areaPercent();
+    targetLatency = frame.latencySeconds();
+    targetTimestamp = frame.captureTimestampSeconds();
+    double turretPosition = RobotContainer.turret.getTurretPosition();
+    //Only fuse each camera frame once
+    if (frame.hasTarget() && frame.sequence() != lastVisionSequence) {
+      drive.addVisionMeasurement(new VisionMeasurement(targetTimestamp, targetX, targetY, turretPosition));
+    }
+    lastVisionSequence = frame.sequence();
+    tvLog.log(targetValid);
+    txLog.log(targetX);
+    tyLog.log(targetY);
+    latencyLog.log(targetLatency);
+    turretLog.log(turretPosition);
+    limelightProfile.stop();
+
+    schedulerProfile.start();
+    //Waits while a disabled auto build is registering its commands, that's only its constructor
+    Lock schedulerLock = autoSelector.getSchedulerLock();
+    if (!schedulerLock.tryLock()) {
+      schedulerWaits++;
+      schedulerLock.lock();
+    }
+    try {
+      CommandScheduler.getInstance().run();
+    }
+    finally {
+      schedulerLock.unlock();
+    }
+    schedulerProfile.stop();
 
     // if (targetArea <= Constants.LIMELIGHT_IS_FAR_AREA) {
     //   Far = true;
@@ -133,7 +248,13 @@ public class Robot extends TimedRobot {
     else {
       RobotContainer.hood.isFar = false;
     }
-    
+
+    //Dashboards and diagnostics go out after everything that drives the robot, if there is time
+    deferredProfile.start();
+    budget.runDeferred();
+    deferredProfile.stop();
+
+    profiler.endLoop(getPeriod());
   }
 
   /**
@@ -141,13 +262,20 @@ public class Robot extends TimedRobot {
    */
   @Override
   public void disabledInit() {
+    CanFrameScheduler.getInstance().setMode(CanFrameScheduler.Mode.DISABLED);
     drive.resetOdometry(new Pose2d());
     // RobotContainer.turret.setControlMode(TurretControlMode.DRIVER);
   }
 
   @Override
   public void disabledPeriodic() {
-    // SmartDashboard.putString("Selected Auto: ", autonTaskChooser.getSelected().toString());
+    autoSelector.update();
+  }
+
+  @Override
+  public void disabledExit() {
+    //Nothing can be scheduled while a build is still registering commands
+    autoSelector.awaitBuild();
   }
 
   /**
@@ -155,10 +283,11 @@ public class Robot extends TimedRobot {
    */
   @Override
   public void autonomousInit() {
+    CanFrameScheduler.getInstance().setMode(CanFrameScheduler.Mode.AUTONOMOUS);
     drive.setControlMode(Drive.DriveControlMode.PATH_FOLLOWING);
     drive.resetOdometry(new Pose2d());
 
-    m_autonomousCommand = new AutoBouncePath();
+    m_autonomousCommand = autoSelector.getSelected();
 
 
     /*
@@ -171,6 +300,7 @@ public class Robot extends TimedRobot {
     // schedule the autonomous command (example)
     if (m_autonomousCommand != null) {
       m_autonomousCommand.schedule();
+      autoStartTime = getTime();
     }
   }
 
@@ -179,11 +309,16 @@ public class Robot extends TimedRobot {
    */
   @Override
   public void autonomousPeriodic() {
-
+    if (autoStartTime >= 0 && !m_autonomousCommand.isScheduled()) {
+      double duration = getTime() - autoStartTime;
+      autoDurationLog.log(duration);
+      autoStartTime = -1;
+    }
   }
 
   @Override
   public void teleopInit() {
+    CanFrameScheduler.getInstance().setMode(CanFrameScheduler.Mode.TELEOP);
     // This makes sure that the autonomous stops running when
     // teleop starts running. If you want the autonomous to
     // continue until interrupted by another command, remove
@@ -204,6 +339,7 @@ public class Robot extends TimedRobot {
 
   @Override
   public void testInit() {
+    CanFrameScheduler.getInstance().setMode(CanFrameScheduler.Mode.TELEOP);
     // Cancels all running commands at the start of test mode.
     CommandScheduler.getInstance().cancelAll();
   }
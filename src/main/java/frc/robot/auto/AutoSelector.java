@@ -0,0 +1,129 @@
+package frc.robot.auto;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import edu.wpi.first.wpilibj2.command.Command;
+import frc.robot.util.AsyncLogger;
+
+/**
+ * Auto chooser that only builds the routine that is actually selected. The dashboard holds a
+ * factory per routine; {@link #update()} is called while disabled and, whenever the selection
+ * changes, builds that routine on a background thread so autonomousInit() gets a finished command
+ * from {@link #getSelected()}.
+ *
+ * <p>Building a command group registers it with the CommandScheduler, which isn't thread safe.
+ * A build holds {@link #getSchedulerLock()} only while the routine's constructor runs, the main
+ * loop takes the same lock around the scheduler, and {@link #awaitBuild()} has to be called on
+ * leaving disabled so no build is still running once commands are being scheduled. The paths are
+ * not part of the build: routines request them through
+ * {@link frc.robot.auto.commands.DriveTrajectory#follow}, so they are generated on the
+ * {@link TrajectoryGenerator} pool outside the lock, and only {@link #isReady()} waits for them.
+ *
+ * <p>Only call from the main robot thread.
+ */
+public class AutoSelector {
+
+  private final SendableChooser<Supplier<Command>> chooser = new SendableChooser<>();
+  private final Lock schedulerLock = new ReentrantLock();
+  private final AsyncLogger.DoubleChannel buildMsLog = AsyncLogger.getInstance().doubleChannel("Auto/Build ms");
+  private final ExecutorService builder = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "AutoBuilder");
+    thread.setDaemon(true);
+    thread.setPriority(Thread.MIN_PRIORITY);
+    return thread;
+  });
+
+  //Selection the current build is for
+  private Supplier<Command> built;
+  private Future<Command> build;
+
+  public void setDefaultOption(String name, Supplier<Command> factory) {
+    chooser.setDefaultOption(name, factory);
+  }
+
+  public void addOption(String name, Supplier<Command> factory) {
+    chooser.addOption(name, factory);
+  }
+
+  public void publish(String key) {
+    SmartDashboard.putData(key, chooser);
+  }
+
+  public Lock getSchedulerLock() {
+    return schedulerLock;
+  }
+
+  /**
+   * Starts building the selected routine if the selection changed. Call from disabledPeriodic().
+   */
+  public void update() {
+    Supplier<Command> selected = chooser.getSelected();
+    if (selected == null || selected == built) {
+      return;
+    }
+    //A build that's still going finishes first, the executor only has the one thread
+    built = selected;
+    build = builder.submit(() -> {
+      long start = System.nanoTime();
+      schedulerLock.lock();
+      try {
+        Command command = selected.get();
+        buildMsLog.log((System.nanoTime() - start) / 1e6);
+        return command;
+      }
+      finally {
+        schedulerLock.unlock();
+      }
+    });
+  }
+
+  //True once the selected routine is built and its paths are generated
+  public boolean isReady() {
+    return build != null && build.isDone() && built == chooser.getSelected()
+        && TrajectoryGenerator.getInstance().isIdle();
+  }
+
+  /**
+   * Waits for a build that is still running, not for its paths. Call on leaving disabled.
+   */
+  public void awaitBuild() {
+    if (build != null) {
+      try {
+        build.get();
+      }
+      catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      catch (ExecutionException e) {
+        //Reported again by getSelected()
+      }
+    }
+  }
+
+  /**
+   * Returns the selected routine, built ahead of time if it could be, otherwise built now.
+   */
+  public Command getSelected() {
+    update();
+    try {
+      return build.get();
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    catch (ExecutionException e) {
+      DriverStation.reportError("Building the auto failed, building it again: " + e.getCause(), e.getCause().getStackTrace());
+    }
+    built = null;
+    return chooser.getSelected().get();
+  }
+}
@@ -0,0 +1,314 @@
+package frc.robot.auto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.trajectory.Trajectory;
+
+/**
+ * A trajectory as parallel primitive arrays (time, x, y, heading, velocity, acceleration,
+ * curvature) instead of a list of State objects, optionally stored as float32 to halve it again.
+ *
+ * <p>Sample it through a {@link Cursor}: the cursor remembers where the last sample was, so
+ * following a path forward in time costs O(1) per sample and never allocates. Interpolation is
+ * meant to match {@link Trajectory#sample(double)}, PackedTrajectoryTest checks it against the
+ * WPILib version in the build. {@link #toTrajectory()} builds a WPILib trajectory for followers
+ * that need one.
+ */
+public final class PackedTrajectory {
+
+  private static final int kTime = 0;
+  private static final int kX = 1;
+  private static final int kY = 2;
+  private static final int kHeading = 3;
+  private static final int kVelocity = 4;
+  private static final int kAcceleration = 5;
+  private static final int kCurvature = 6;
+  static final int kColumns = 7;
+
+  //Exactly one of these holds the columns
+  private final double[][] doubles;
+  private final float[][] floats;
+  private final int size;
+
+  private PackedTrajectory(double[][] doubles, float[][] floats, int size) {
+    this.doubles = doubles;
+    this.floats = floats;
+    this.size = size;
+  }
+
+  /**
+   * Packs a WPILib trajectory.
+   *
+   * @param singlePrecision store float32, plenty for meters and seconds over a field
+   */
+  public static PackedTrajectory of(Trajectory trajectory, boolean singlePrecision) {
+    List<Trajectory.State> states = trajectory.getStates();
+    int size = states.size();
+    double[][] doubles = singlePrecision ? null : new double[kColumns][size];
+    float[][] floats = singlePrecision ? new float[kColumns][size] : null;
+    double[] row = new double[kColumns];
+    for (int i = 0; i < size; i++) {
+      Trajectory.State state = states.get(i);
+      row[kTime] = state.timeSeconds;
+      row[kX] = state.poseMeters.getX();
+      row[kY] = state.poseMeters.getY();
+      row[kHeading] = state.poseMeters.getRotation().getRadians();
+      row[kVelocity] = state.velocityMetersPerSecond;
+      row[kAcceleration] = state.accelerationMetersPerSecondSq;
+      row[kCurvature] = state.curvatureRadPerMeter;
+      for (int column = 0; column < kColumns; column++) {
+        if (singlePrecision) {
+          floats[column][i] = (float) row[column];
+        }
+        else {
+          doubles[column][i] = row[column];
+        }
+      }
+    }
+    return new PackedTrajectory(doubles, floats, size);
+  }
+
+  //Wraps float32 columns that were read straight from a file, column order is t x y heading v a k
+  static PackedTrajectory ofFloats(float[][] columns) {
+    return new PackedTrajectory(null, columns, columns[kTime].length);
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isSinglePrecision() {
+    return floats != null;
+  }
+
+  public double getTotalTimeSeconds() {
+    return size == 0 ? 0 : value(kTime, size - 1);
+  }
+
+  public double getTime(int index) {
+    return value(kTime, index);
+  }
+
+  public double getX(int index) {
+    return value(kX, index);
+  }
+
+  public double getY(int index) {
+    return value(kY, index);
+  }
+
+  public double getHeadingRadians(int index) {
+    return value(kHeading, index);
+  }
+
+  public double getVelocity(int index) {
+    return value(kVelocity, index);
+  }
+
+  public double getAcceleration(int index) {
+    return value(kAcceleration, index);
+  }
+
+  public double getCurvature(int index) {
+    return value(kCurvature, index);
+  }
+
+  public Pose2d getInitialPose() {
+    return new Pose2d(getX(0), getY(0), new Rotation2d(getHeadingRadians(0)));
+  }
+
+  public Cursor cursor() {
+    return new Cursor();
+  }
+
+  /**
+   * Builds the equivalent WPILib trajectory for followers that take one. Allocates every state.
+   */
+  public Trajectory toTrajectory() {
+    List<Trajectory.State> states = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      states.add(new Trajectory.State(getTime(i), getVelocity(i), getAcceleration(i),
+          new Pose2d(getX(i), getY(i), new Rotation2d(getHeadingRadians(i))), getCurvature(i)));
+    }
+    return new Trajectory(states);
+  }
+
+  //Bytes held by the arrays
+  public long getSizeBytes() {
+    return (long) kColumns * size * (floats != null ? Float.BYTES : Double.BYTES);
+  }
+
+  private double value(int column, int index) {
+    return floats != null ? floats[column][index] : doubles[column][index];
+  }
+
+  /**
+   * Samples the trajectory in place. Keep one per follower, it isn't thread safe.
+   */
+  public final class Cursor {
+    //Last state at or before the last sample time
+    private int index = 0;
+
+    private double time;
+    private double x;
+    private double y;
+    private double heading;
+    private double velocity;
+    private double acceleration;
+    private double curvature;
+
+    private Cursor() {
+    }
+
+    /**
+     * Moves to a time and interpolates the state there, clamped to the ends of the trajectory.
+     */
+    public void sample(double timeSeconds) {
+      if (size == 0) {
+        return;
+      }
+      if (timeSeconds <= getTime(0)) {
+        index = 0;
+        load(0);
+        return;
+      }
+      if (timeSeconds >= getTotalTimeSeconds()) {
+        index = size - 1;
+        load(size - 1);
+        return;
+      }
+
+      if (timeSeconds < getTime(index)) {
+        index = search(timeSeconds);
+      }
+      while (index < size - 2 && getTime(index + 1) <= timeSeconds) {
+        index++;
+      }
+      interpolate(index, timeSeconds);
+    }
+
+    public void reset() {
+      index = 0;
+    }
+
+    public double getTime() {
+      return time;
+    }
+
+    public double getX() {
+      return x;
+    }
+
+    public double getY() {
+      return y;
+    }
+
+    public double getHeadingRadians() {
+      return heading;
+    }
+
+    public double getVelocity() {
+      return velocity;
+    }
+
+    public double getAcceleration() {
+      return acceleration;
+    }
+
+    public double getCurvature() {
+      return curvature;
+    }
+
+    //Last state at or before the time, for a jump backwards
+    private int search(double timeSeconds) {
+      int low = 0;
+      int high = size - 1;
+      while (low < high) {
+        int middle = (low + high + 1) >>> 1;
+        if (getTime(middle) <= timeSeconds) {
+          low = middle;
+        }
+        else {
+          high = middle - 1;
+        }
+      }
+      return low;
+    }
+
+    private void load(int i) {
+      time = getTime(i);
+      x = getX(i);
+      y = getY(i);
+      heading = getHeadingRadians(i);
+      velocity = getVelocity(i);
+      acceleration = getAcceleration(i);
+      curvature = getCurvature(i);
+    }
+
+    //Same kinematic interpolation as Trajectory.State.interpolate(), with the pose moved along the
+    //twist between the two states like Pose2d.interpolate(), inlined so nothing is allocated
+    private void interpolate(int i, double timeSeconds) {
+      double startVelocity = getVelocity(i);
+      double startAcceleration = getAcceleration(i);
+      double deltaT = timeSeconds - getTime(i);
+      boolean reversing = startVelocity < 0 || Math.abs(startVelocity) < 1e-9 && startAcceleration < 0;
+      double distance = (startVelocity * deltaT + 0.5 * startAcceleration * deltaT * deltaT) * (reversing ? -1 : 1);
+
+      double startX = getX(i);
+      double startY = getY(i);
+      double startHeading = getHeadingRadians(i);
+      double worldDx = getX(i + 1) - startX;
+      double worldDy = getY(i + 1) - startY;
+      double segment = Math.hypot(worldDx, worldDy);
+      //Pose2d.interpolate() and MathUtil.interpolate() both clamp the fraction, so the curvature does too
+      double fraction = MathUtil.clamp(segment > 1e-9 ? distance / segment : 0, 0, 1);
+
+      time = timeSeconds;
+      velocity = startVelocity + startAcceleration * deltaT;
+      acceleration = startAcceleration;
+      curvature = getCurvature(i) + (getCurvature(i + 1) - getCurvature(i)) * fraction;
+      if (fraction >= 1) {
+        x = getX(i + 1);
+        y = getY(i + 1);
+        heading = getHeadingRadians(i + 1);
+        return;
+      }
+
+      //Pose2d.log(): the next state in this one's frame, as a twist
+      double cos = Math.cos(startHeading);
+      double sin = Math.sin(startHeading);
+      double localDx = worldDx * cos + worldDy * sin;
+      double localDy = -worldDx * sin + worldDy * cos;
+      double dTheta = MathUtil.angleModulus(getHeadingRadians(i + 1) - startHeading);
+      double halfDTheta = dTheta / 2;
+      double cosMinusOne = Math.cos(dTheta) - 1;
+      double halfThetaByTanOfHalfDTheta = Math.abs(cosMinusOne) < 1e-9
+          ? 1 - dTheta * dTheta / 12
+          : -(halfDTheta * Math.sin(dTheta)) / cosMinusOne;
+      double twistDx = (localDx * halfThetaByTanOfHalfDTheta + localDy * halfDTheta) * fraction;
+      double twistDy = (localDy * halfThetaByTanOfHalfDTheta - localDx * halfDTheta) * fraction;
+      double twistDTheta = dTheta * fraction;
+
+      //Pose2d.exp() of the scaled twist, back in the field frame
+      double s;
+      double c;
+      if (Math.abs(twistDTheta) < 1e-9) {
+        s = 1 - twistDTheta * twistDTheta / 6;
+        c = 0.5 * twistDTheta;
+      }
+      else {
+        s = Math.sin(twistDTheta) / twistDTheta;
+        c = (1 - Math.cos(twistDTheta)) / twistDTheta;
+      }
+      double moveX = twistDx * s - twistDy * c;
+      double moveY = twistDx * c + twistDy * s;
+      x = startX + moveX * cos - moveY * sin;
+      y = startY + moveX * sin + moveY * cos;
+      heading = MathUtil.angleModulus(startHeading + twistDTheta);
+    }
+  }
+}
@@ -0,0 +1,82 @@
+package frc.robot.auto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.wpi.first.math.spline.PoseWithCurvature;
+import edu.wpi.first.math.trajectory.Trajectory;
+import edu.wpi.first.math.trajectory.TrajectoryConfig;
+import edu.wpi.first.math.trajectory.TrajectoryParameterizer;
+
+/**
+ * Joins separately generated path segments into one trajectory that is followed without a stop
+ * at every boundary.
+ *
+ * <p>Consecutive segments that keep going the same way (same config, the second starting where
+ * the first ends) are merged into one run: their points are put end to end and time
+ * parameterized again as a whole, so the speed carries through the boundary instead of dropping
+ * to zero. Where the path reverses, or the speed profile changes, the runs stay as generated and
+ * simply follow on from each other; both already have zero speed there.
+ */
+public final class PathChain {
+
+  //How close a boundary has to be for two segments to be merged
+  private static final double kJoinToleranceMeters = 0.02;
+  private static final double kJoinToleranceRadians = Math.toRadians(2);
+
+  //One segment of the chain and the config it was generated with
+  public record Segment(Trajectory trajectory, TrajectoryConfig config) {
+  }
+
+  private PathChain() {
+  }
+
+  public static Trajectory join(List<Segment> segments) {
+    Trajectory chained = null;
+    int i = 0;
+    while (i < segments.size()) {
+      //Grow a run for as long as the next segment continues this one
+      List<Segment> run = new ArrayList<>();
+      run.add(segments.get(i++));
+      while (i < segments.size() && continues(run.get(run.size() - 1), segments.get(i))) {
+        run.add(segments.get(i++));
+      }
+
+      Trajectory joined = run.size() == 1 ? run.get(0).trajectory() : parameterize(run);
+      chained = chained == null ? joined : chained.concatenate(joined);
+    }
+    return chained;
+  }
+
+  private static boolean continues(Segment previous, Segment next) {
+    if (previous.config() != next.config()) {
+      return false;
+    }
+    List<Trajectory.State> previousStates = previous.trajectory().getStates();
+    Trajectory.State end = previousStates.get(previousStates.size() - 1);
+    Trajectory.State start = next.trajectory().getStates().get(0);
+    return end.poseMeters.getTranslation().getDistance(start.poseMeters.getTranslation()) < kJoinToleranceMeters
+        && Math.abs(end.poseMeters.getRotation().minus(start.poseMeters.getRotation()).getRadians()) < kJoinToleranceRadians;
+  }
+
+  private static Trajectory parameterize(List<Segment> run) {
+    List<PoseWithCurvature> points = new ArrayList<>();
+    for (Segment segment : run) {
+      List<Trajectory.State> states = segment.trajectory().getStates();
+      //The first point of a later segment is the last point of the one before
+      for (int j = points.isEmpty() ? 0 : 1; j < states.size(); j++) {
+        Trajectory.State state = states.get(j);
+        points.add(new PoseWithCurvature(state.poseMeters, state.curvatureRadPerMeter));
+      }
+    }
+    TrajectoryConfig config = run.get(0).config();
+    return TrajectoryParameterizer.timeParameterizeTrajectory(
+        points,
+        config.getConstraints(),
+        config.getStartVelocity(),
+        config.getEndVelocity(),
+        config.getMaxVelocity(),
+        config.getMaxAcceleration(),
+        config.isReversed());
+  }
+}
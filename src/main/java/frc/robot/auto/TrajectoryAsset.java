@@ -0,0 +1,176 @@
+package frc.robot.auto;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import edu.wpi.first.math.trajectory.Trajectory;
+
+/**
+ * Binary file of generated trajectories, written on the build machine by
+ * {@code tools/TrajectoryExporter} and memory mapped on the robot so boot doesn't have to run the
+ * spline and constraint solver.
+ *
+ * <p>Layout, little endian: magic, version, entry count, then per entry the name (u16 length +
+ * UTF-8), the {@link TrajectoryGenerator} fingerprint of its inputs, how many microseconds it
+ * took to generate, the state count and per
+ * state t, x, y, heading, v, a, curvature as float32 (the {@link PackedTrajectory} column order).
+ * A CRC32 of everything before it closes the file.
+ */
+public final class TrajectoryAsset {
+
+  private static final int kMagic = 0x314a5254; //"TRJ1"
+  private static final int kVersion = 3;
+  private static final int kFloatsPerState = PackedTrajectory.kColumns;
+
+  //One trajectory to write, keyed by name and the fingerprint of what it was generated from
+  public record Entry(String name, long fingerprint, int generationMicros, Trajectory trajectory) {
+  }
+
+  private record Index(long fingerprint, int generationMicros, int offset, int states) {
+  }
+
+  private final ByteBuffer buffer;
+  private final Map<String, Index> index;
+
+  private TrajectoryAsset(ByteBuffer buffer, Map<String, Index> index) {
+    this.buffer = buffer;
+    this.index = index;
+  }
+
+  /**
+   * Maps a file and checks it. States are only decoded when a trajectory is asked for.
+   *
+   * @throws IOException if the file can't be read, isn't this format or fails its checksum
+   */
+  public static TrajectoryAsset map(Path path) throws IOException {
+    MappedByteBuffer mapped;
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    ByteBuffer buffer = mapped.order(ByteOrder.LITTLE_ENDIAN);
+    if (buffer.limit() < 16) {
+      throw new IOException(path + " is truncated");
+    }
+
+    CRC32 crc = new CRC32();
+    crc.update(buffer.duplicate().limit(buffer.limit() - 4));
+    if ((int) crc.getValue() != buffer.getInt(buffer.limit() - 4)) {
+      throw new IOException(path + " failed its checksum");
+    }
+    if (buffer.getInt(0) != kMagic || buffer.getInt(4) != kVersion) {
+      throw new IOException(path + " is not a version " + kVersion + " trajectory file");
+    }
+
+    int count = buffer.getInt(8);
+    Map<String, Index> index = new HashMap<>();
+    int position = 12;
+    for (int i = 0; i < count; i++) {
+      int nameLength = Short.toUnsignedInt(buffer.getShort(position));
+      byte[] name = new byte[nameLength];
+      buffer.get(position + 2, name);
+      position += 2 + nameLength;
+      long fingerprint = buffer.getLong(position);
+      int generationMicros = buffer.getInt(position + 8);
+      int states = buffer.getInt(position + 12);
+      position += 16;
+      index.put(new String(name, StandardCharsets.UTF_8), new Index(fingerprint, generationMicros, position, states));
+      position += states * kFloatsPerState * Float.BYTES;
+    }
+    return new TrajectoryAsset(buffer, index);
+  }
+
+  /**
+   * Decodes a stored trajectory into float32 columns.
+   *
+   * @return null if there is no entry with this name or it was generated from other inputs
+   */
+  public PackedTrajectory getPacked(String name, long fingerprint) {
+    Index entry = index.get(name);
+    if (entry == null || entry.fingerprint != fingerprint) {
+      return null;
+    }
+    float[][] columns = new float[kFloatsPerState][entry.states];
+    int position = entry.offset;
+    for (int i = 0; i < entry.states; i++) {
+      for (int column = 0; column < kFloatsPerState; column++) {
+        columns[column][i] = buffer.getFloat(position);
+        position += Float.BYTES;
+      }
+    }
+    return PackedTrajectory.ofFloats(columns);
+  }
+
+  //Same as getPacked() but as a WPILib trajectory
+  public Trajectory get(String name, long fingerprint) {
+    PackedTrajectory packed = getPacked(name, fingerprint);
+    return packed == null ? null : packed.toTrajectory();
+  }
+
+  //How long the named trajectory took to generate, 0 if there is no such entry
+  public long getGenerationMicros(String name) {
+    Index entry = index.get(name);
+    return entry == null ? 0 : entry.generationMicros;
+  }
+
+  public int size() {
+    return index.size();
+  }
+
+  /**
+   * Writes trajectories to a file, replacing it in one move so a reader never sees half a file.
+   */
+  public static void write(Path path, List<Entry> entries) throws IOException {
+    int size = 16;
+    List<byte[]> names = new ArrayList<>();
+    for (Entry entry : entries) {
+      byte[] name = entry.name().getBytes(StandardCharsets.UTF_8);
+      names.add(name);
+      size += 2 + name.length + 16 + entry.trajectory().getStates().size() * kFloatsPerState * Float.BYTES;
+    }
+
+    ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+    buffer.putInt(kMagic);
+    buffer.putInt(kVersion);
+    buffer.putInt(entries.size());
+    for (int i = 0; i < entries.size(); i++) {
+      Entry entry = entries.get(i);
+      buffer.putShort((short) names.get(i).length);
+      buffer.put(names.get(i));
+      buffer.putLong(entry.fingerprint());
+      buffer.putInt(entry.generationMicros());
+      List<Trajectory.State> states = entry.trajectory().getStates();
+      buffer.putInt(states.size());
+      for (Trajectory.State state : states) {
+        buffer.putFloat((float) state.timeSeconds);
+        buffer.putFloat((float) state.poseMeters.getX());
+        buffer.putFloat((float) state.poseMeters.getY());
+        buffer.putFloat((float) state.poseMeters.getRotation().getRadians());
+        buffer.putFloat((float) state.velocityMetersPerSecond);
+        buffer.putFloat((float) state.accelerationMetersPerSecondSq);
+        buffer.putFloat((float) state.curvatureRadPerMeter);
+      }
+    }
+    CRC32 crc = new CRC32();
+    crc.update(buffer.array(), 0, buffer.position());
+    buffer.putInt((int) crc.getValue());
+
+    Path parent = path.toAbsolutePath().getParent();
+    Files.createDirectories(parent);
+    Path temporary = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+    Files.write(temporary, buffer.array());
+    Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+}
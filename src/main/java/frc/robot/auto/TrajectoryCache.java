@@ -0,0 +1,75 @@
+package frc.robot.auto;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.List;
+
+import edu.wpi.first.math.trajectory.Trajectory;
+import edu.wpi.first.wpilibj.DriverStation;
+
+/**
+ * Trajectories generated on the robot, kept on its filesystem across restarts. Each one is a
+ * {@link TrajectoryAsset} file named after the fingerprint of its inputs (waypoints, config,
+ * constraints, kinematics), so editing a path only misses for that path, and two getters with the
+ * same inputs share a file. Files for inputs that no longer exist are never looked up again.
+ *
+ * <p>Safe to use from the generator's pool threads.
+ */
+public class TrajectoryCache {
+
+  private final Path directory;
+
+  public TrajectoryCache(Path directory) {
+    this.directory = directory;
+  }
+
+  /**
+   * Reads a cached trajectory.
+   *
+   * @return null on a miss, or if the file is unreadable (it gets rewritten on the next put)
+   */
+  public Cached get(long fingerprint) {
+    String key = key(fingerprint);
+    try {
+      TrajectoryAsset asset = TrajectoryAsset.map(file(key));
+      PackedTrajectory packed = asset.getPacked(key, fingerprint);
+      if (packed == null) {
+        return null;
+      }
+      return new Cached(packed.toTrajectory(), asset.getGenerationMicros(key));
+    }
+    catch (NoSuchFileException e) {
+      return null;
+    }
+    catch (IOException e) {
+      DriverStation.reportWarning("Trajectory cache entry " + key + " unreadable: " + e, false);
+      return null;
+    }
+  }
+
+  public void put(long fingerprint, long generationNanos, Trajectory trajectory) {
+    String key = key(fingerprint);
+    try {
+      Files.createDirectories(directory);
+      TrajectoryAsset.write(file(key), List.of(
+          new TrajectoryAsset.Entry(key, fingerprint, (int) (generationNanos / 1000), trajectory)));
+    }
+    catch (IOException e) {
+      DriverStation.reportWarning("Could not cache trajectory " + key + ": " + e, false);
+    }
+  }
+
+  private Path file(String key) {
+    return directory.resolve(key + ".bin");
+  }
+
+  private static String key(long fingerprint) {
+    return String.format("%016x", fingerprint);
+  }
+
+  //A cache hit and how long generating it took when it was stored
+  public record Cached(Trajectory trajectory, long generationMicros) {
+  }
+}
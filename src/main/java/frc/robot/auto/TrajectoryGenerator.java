@@ -1,6 +1,18 @@
 package frc.robot.auto;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 import edu.wpi.first.math.controller.SimpleMotorFeedforward;
 import edu.wpi.first.math.geometry.Pose2d;
@@ -8,63 +20,344 @@ import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.math.trajectory.Trajectory;
 import edu.wpi.first.math.trajectory.TrajectoryConfig;
+import edu.wpi.first.math.trajectory.constraint.CentripetalAccelerationConstraint;
 import edu.wpi.first.math.trajectory.constraint.DifferentialDriveVoltageConstraint;
+import edu.wpi.first.math.trajectory.constraint.MaxVelocityConstraint;
+import edu.wpi.first.math.trajectory.constraint.RectangularRegionConstraint;
+import edu.wpi.first.math.trajectory.constraint.TrajectoryConstraint;
 import edu.wpi.first.math.util.Units;
+import edu.wpi.first.wpilibj.DriverStation;
 import frc.robot.Constants;
 
 public class TrajectoryGenerator {
-    private static final TrajectoryGenerator instance = new TrajectoryGenerator();
+    private static final TrajectoryGenerator instance = new TrajectoryGenerator(true);
+
+    //Voltage constraint every path used before the region and turn limits
+    private static final double kBaselineMaxVoltage = 10;
 
     public static TrajectoryGenerator getInstance() {
         return instance;
     }
 
+    /**
+     * A generator with the constraints the paths had before region and turn limits: one speed per
+     * config and a 10V voltage constraint. Only for comparing path times.
+     */
+    public static TrajectoryGenerator baseline() {
+        return new TrajectoryGenerator(false);
+    }
+
     // Create a voltage constraint to ensure we don't accelerate too fast
-    DifferentialDriveVoltageConstraint autoVoltageConstraint =
-            new DifferentialDriveVoltageConstraint(
-                    new SimpleMotorFeedforward(Constants.ksVolts,
-                            Constants.kvVoltSecondsPerMeter,
-                            Constants.kaVoltSecondsSquaredPerMeter),
-                    Constants.kDriveKinematics,
-                    10);
-
-    // Create config for trajectory
-    TrajectoryConfig forwardConfigFast =
-            new TrajectoryConfig(Constants.kMaxSpeedMetersPerSecond,
-                    Constants.kMaxAccelerationMetersPerSecondSquared)
-                    // Add kinematics to ensure max speed is actually obeyed
-                    .setKinematics(Constants.kDriveKinematics)
-                    // Apply the voltage constraint
-                    .addConstraint(autoVoltageConstraint);
-
-    TrajectoryConfig forwardConfigSlow =
-            new TrajectoryConfig(Constants.kMinSpeedMetersPerSecond,
-                    Constants.kMinAcclerationMetersPerSecondSquared)
-                    // Add kinematics to ensure max speed is actually obeyed
-                    .setKinematics(Constants.kDriveKinematics)
-                    // Apply the voltage constraint
-                    .addConstraint(autoVoltageConstraint);
-
-    TrajectoryConfig reverseConfigSlow =
-            new TrajectoryConfig(Constants.kMinSpeedMetersPerSecond,
-                    Constants.kMinAcclerationMetersPerSecondSquared)
-                    // Add kinematics to ensure max speed is actually obeyed
-                    .setKinematics(Constants.kDriveKinematics)
-                    // Apply the voltage constraint
-                    .addConstraint(autoVoltageConstraint)
-                    .setReversed(true);
-
-    TrajectoryConfig reverseConfigFast =
-            new TrajectoryConfig(Constants.kMaxSpeedMetersPerSecond,
-                    Constants.kMaxAccelerationMetersPerSecondSquared)
-                    // Add kinematics to ensure max speed is actually obeyed
-                    .setKinematics(Constants.kDriveKinematics)
-                    // Apply the voltage constraint
-                    .addConstraint(autoVoltageConstraint)
-                    .setReversed(true);
+    final DifferentialDriveVoltageConstraint autoVoltageConstraint;
+
+    //Slow through the trench while intaking, full speed in the open field
+    final RectangularRegionConstraint trenchConstraint =
+            new RectangularRegionConstraint(
+                    new Translation2d(Units.inchesToMeters(Constants.kTrenchMinXInches),
+                            Units.inchesToMeters(Constants.kTrenchMinYInches)),
+                    new Translation2d(Units.inchesToMeters(Constants.kTrenchMaxXInches),
+                            Units.inchesToMeters(Constants.kTrenchMaxYInches)),
+                    new MaxVelocityConstraint(Constants.kTrenchMaxSpeedMetersPerSecond));
+
+    //Caps speed in tight turns (Slalom, Bounce) so the robot doesn't slide off the path
+    final CentripetalAccelerationConstraint turnConstraint =
+            new CentripetalAccelerationConstraint(Constants.kMaxCentripetalAccelerationMetersPerSecondSq);
+
+    //What each constraint above is built from, goes into the fingerprint of the paths that use it
+    private final Map<TrajectoryConstraint, double[]> constraintParameters = new IdentityHashMap<>();
+    private static final double[] kNoParameters = new double[0];
+
+    //Paths generated on the build machine, null if the deploy file was missing or bad
+    private TrajectoryAsset precomputed;
+    //Paths generated on the robot, null until enableCache()
+    private TrajectoryCache cache;
+    private final AtomicInteger precomputedHits = new AtomicInteger();
+    private final AtomicInteger precomputedStale = new AtomicInteger();
+    private final AtomicInteger cacheHits = new AtomicInteger();
+    private final AtomicInteger generated = new AtomicInteger();
+    private final AtomicLong savedMicros = new AtomicLong();
+    private final AtomicLong precomputedBuildMicros = new AtomicLong();
+    private final Map<String, Long> fingerprints = new ConcurrentHashMap<>();
+    private final Map<String, List<Trajectory>> chains = new ConcurrentHashMap<>();
+
+    //One worker per core, generating a path is all CPU
+    private final AtomicInteger workers = new AtomicInteger();
+    private final ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors(), forkJoinPool -> {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+        thread.setName("TrajectoryGenerator-" + workers.incrementAndGet());
+        return thread;
+    }, null, false);
+
+    TrajectoryConfig forwardConfigFast;
+    TrajectoryConfig forwardConfigSlow;
+    TrajectoryConfig reverseConfigSlow;
+    TrajectoryConfig reverseConfigFast;
+    //Fast, except for the trench region
+    TrajectoryConfig forwardConfigTrench;
+
+    private TrajectoryGenerator(boolean limits) {
+        double maxVoltage = limits ? Constants.kAutoMaxVoltage : kBaselineMaxVoltage;
+        autoVoltageConstraint =
+                new DifferentialDriveVoltageConstraint(
+                        new SimpleMotorFeedforward(Constants.ksVolts,
+                                Constants.kvVoltSecondsPerMeter,
+                                Constants.kaVoltSecondsSquaredPerMeter),
+                        Constants.kDriveKinematics,
+                        maxVoltage);
+        constraintParameters.put(autoVoltageConstraint, new double[] {
+                Constants.ksVolts,
+                Constants.kvVoltSecondsPerMeter,
+                Constants.kaVoltSecondsSquaredPerMeter,
+                Constants.kTrackWidthMeters,
+                maxVoltage});
+        constraintParameters.put(trenchConstraint, new double[] {
+                Constants.kTrenchMinXInches,
+                Constants.kTrenchMinYInches,
+                Constants.kTrenchMaxXInches,
+                Constants.kTrenchMaxYInches,
+                Constants.kTrenchMaxSpeedMetersPerSecond});
+        constraintParameters.put(turnConstraint, new double[] {
+                Constants.kMaxCentripetalAccelerationMetersPerSecondSq});
+
+        // Create config for trajectory
+        forwardConfigFast = config(Constants.kMaxSpeedMetersPerSecond, Constants.kMaxAccelerationMetersPerSecondSquared);
+        forwardConfigSlow = config(Constants.kMinSpeedMetersPerSecond, Constants.kMinAcclerationMetersPerSecondSquared);
+        reverseConfigSlow = config(Constants.kMinSpeedMetersPerSecond, Constants.kMinAcclerationMetersPerSecondSquared)
+                .setReversed(true);
+        reverseConfigFast = config(Constants.kMaxSpeedMetersPerSecond, Constants.kMaxAccelerationMetersPerSecondSquared)
+                .setReversed(true);
+
+        if (limits) {
+            forwardConfigFast.addConstraint(turnConstraint);
+            reverseConfigFast.addConstraint(turnConstraint);
+            forwardConfigTrench = config(Constants.kMaxSpeedMetersPerSecond, Constants.kMaxAccelerationMetersPerSecondSquared)
+                    .addConstraint(turnConstraint)
+                    .addConstraint(trenchConstraint);
+        }
+        else {
+            forwardConfigTrench = forwardConfigSlow;
+        }
+    }
+
+    private TrajectoryConfig config(double maxSpeed, double maxAcceleration) {
+        TrajectoryConfig config = new TrajectoryConfig(maxSpeed, maxAcceleration)
+                // Add kinematics to ensure max speed is actually obeyed
+                .setKinematics(Constants.kDriveKinematics);
+        //setKinematics() adds a constraint of its own, built from the track width and max speed
+        for (TrajectoryConstraint constraint : config.getConstraints()) {
+            constraintParameters.put(constraint, new double[] {Constants.kTrackWidthMeters});
+        }
+        // Apply the voltage constraint
+        return config.addConstraint(autoVoltageConstraint);
+    }
+
+    /**
+     * Maps the trajectories generated at build time. Paths whose inputs changed since then, or
+     * every path if the file is missing or fails its checksum, get generated here instead.
+     */
+    public void loadPrecomputed(Path path) {
+        try {
+            precomputed = TrajectoryAsset.map(path);
+        }
+        catch (IOException e) {
+            precomputed = null;
+            DriverStation.reportWarning("Precomputed trajectories not used, generating at runtime: " + e, false);
+        }
+    }
+
+    /**
+     * Keeps paths generated on the robot in a directory so they survive a restart. Anything not
+     * precomputed is looked up there before it's generated.
+     */
+    public void enableCache(Path directory) {
+        cache = new TrajectoryCache(directory);
+    }
+
+    //Paths in the deploy file, 0 if it wasn't loaded
+    public int getPrecomputedLoaded() {
+        return precomputed == null ? 0 : precomputed.size();
+    }
+
+    //Paths served from the deploy file
+    public int getPrecomputedHits() {
+        return precomputedHits.get();
+    }
+
+    //Paths whose deploy file entry was generated from different inputs
+    public int getPrecomputedStale() {
+        return precomputedStale.get();
+    }
+
+    //Paths served from the on robot cache
+    public int getCacheHits() {
+        return cacheHits.get();
+    }
+
+    //Paths that had to be generated, misses in both
+    public int getGenerated() {
+        return generated.get();
+    }
+
+    //Robot generation time the cache has saved since boot, both sides measured on the robot
+    public double getSavedMs() {
+        return savedMicros.get() / 1000.0;
+    }
+
+    //What the precomputed paths used since boot took to generate on the build machine, not robot time
+    public double getPrecomputedBuildMs() {
+        return precomputedBuildMicros.get() / 1000.0;
+    }
+
+    /**
+     * Starts producing a path on the generator's pool, e.g. {@code async(generator::getSlalomToFinalPose)}.
+     * Request every path a routine needs up front and join each one only when it's about to be
+     * followed.
+     */
+    public CompletableFuture<Trajectory> async(Supplier<Trajectory> path) {
+        return CompletableFuture.supplyAsync(path, pool);
+    }
+
+    //Same as async() but packed for the follower, float32 unless kPackedSinglePrecision is off
+    public CompletableFuture<PackedTrajectory> asyncPacked(Supplier<Trajectory> path) {
+        return async(path).thenApply(trajectory -> PackedTrajectory.of(trajectory, Constants.kPackedSinglePrecision));
+    }
+
+    //True once every path requested through async() has been produced
+    public boolean isIdle() {
+        return pool.isQuiescent();
+    }
+
+    //Fingerprint of the inputs the named path was last produced from, 0 if it hasn't been
+    public long getFingerprint(String name) {
+        return fingerprints.getOrDefault(name, 0L);
+    }
+
+    //A produced path with the config and fingerprint chain() needs to join it
+    record Generated(Trajectory trajectory, TrajectoryConfig config, long fingerprint) {
+    }
+
+    /**
+     * Produces a path from its waypoints, see {@link #produce}.
+     */
+    Trajectory generate(String name, Pose2d start, List<Translation2d> interior, Pose2d end, TrajectoryConfig config) {
+        return segment(name, start, interior, end, config).trajectory();
+    }
+
+    //Same as generate(), for paths that are also chained
+    Generated segment(String name, Pose2d start, List<Translation2d> interior, Pose2d end, TrajectoryConfig config) {
+        long fingerprint = fingerprint(start, interior, end, config);
+        Trajectory trajectory = produce(name, fingerprint,
+                () -> edu.wpi.first.math.trajectory.TrajectoryGenerator.generateTrajectory(start, interior, end, config));
+        return new Generated(trajectory, config, fingerprint);
+    }
+
+    /**
+     * Joins segments from this generator into one path followed without stopping in between, see
+     * {@link PathChain}. Cached and precomputed like any other path.
+     */
+    Trajectory chain(String name, Generated... segments) {
+        long fingerprint = 0xcbf29ce484222325L;
+        List<PathChain.Segment> links = new ArrayList<>();
+        List<Trajectory> trajectories = new ArrayList<>();
+        for (Generated segment : segments) {
+            fingerprint = mixBits(fingerprint, segment.fingerprint());
+            links.add(new PathChain.Segment(segment.trajectory(), segment.config()));
+            trajectories.add(segment.trajectory());
+        }
+        chains.put(name, List.copyOf(trajectories));
+        return produce(name, fingerprint, () -> PathChain.join(links));
+    }
+
+    //Segments the named chain was last built from, null if it isn't a chain
+    public List<Trajectory> getChainSegments(String name) {
+        return chains.get(name);
+    }
+
+    /**
+     * Returns the precomputed or cached path if there is one for these exact inputs, otherwise
+     * generates and caches it.
+     */
+    private Trajectory produce(String name, long fingerprint, Supplier<Trajectory> generator) {
+        fingerprints.put(name, fingerprint);
+        long loadStart = System.nanoTime();
+        if (precomputed != null) {
+            Trajectory trajectory = precomputed.get(name, fingerprint);
+            if (trajectory != null) {
+                precomputedHits.incrementAndGet();
+                precomputedBuildMicros.addAndGet(precomputed.getGenerationMicros(name));
+                return trajectory;
+            }
+            precomputedStale.incrementAndGet();
+        }
+        if (cache != null) {
+            TrajectoryCache.Cached cached = cache.get(fingerprint);
+            if (cached != null) {
+                cacheHits.incrementAndGet();
+                saved(cached.generationMicros(), loadStart);
+                return cached.trajectory();
+            }
+        }
+
+        long generationStart = System.nanoTime();
+        Trajectory trajectory = generator.get();
+        long generationNanos = System.nanoTime() - generationStart;
+        generated.incrementAndGet();
+        if (cache != null) {
+            cache.put(fingerprint, generationNanos, trajectory);
+        }
+        return trajectory;
+    }
+
+    //Time a cache hit saved, what generating took on the robot when it was stored minus what loading it took
+    private void saved(long generationMicros, long loadStart) {
+        savedMicros.addAndGet(generationMicros - (System.nanoTime() - loadStart) / 1000);
+    }
+
+    /**
+     * FNV-1a hash of the waypoints, the config and the parameters of the config's constraints,
+     * changes whenever anything that shapes the path does. A constraint the path doesn't use
+     * doesn't change its fingerprint.
+     */
+    long fingerprint(Pose2d start, List<Translation2d> interior, Pose2d end, TrajectoryConfig config) {
+        long hash = 0xcbf29ce484222325L;
+        hash = mix(hash, start.getX());
+        hash = mix(hash, start.getY());
+        hash = mix(hash, start.getRotation().getRadians());
+        for (Translation2d waypoint : interior) {
+            hash = mix(hash, waypoint.getX());
+            hash = mix(hash, waypoint.getY());
+        }
+        hash = mix(hash, end.getX());
+        hash = mix(hash, end.getY());
+        hash = mix(hash, end.getRotation().getRadians());
+        hash = mix(hash, config.getMaxVelocity());
+        hash = mix(hash, config.getMaxAcceleration());
+        hash = mix(hash, config.getStartVelocity());
+        hash = mix(hash, config.getEndVelocity());
+        hash = mix(hash, config.isReversed() ? 1 : 0);
+        for (TrajectoryConstraint constraint : config.getConstraints()) {
+            hash = mix(hash, constraint.getClass().getName().hashCode());
+            for (double parameter : constraintParameters.getOrDefault(constraint, kNoParameters)) {
+                hash = mix(hash, parameter);
+            }
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, double value) {
+        return mixBits(hash, Double.doubleToLongBits(value));
+    }
+
+    private static long mixBits(long hash, long bits) {
+        for (int i = 0; i < 8; i++) {
+            hash ^= (bits >>> (i * 8)) & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
 
         public Trajectory getDriveStraight(){
-            return edu.wpi.first.math.trajectory.TrajectoryGenerator.generateTrajectory(
+            return generate("DriveStraight",
                     new Pose2d(Units.inchesToMeters(0), Units.inchesToMeters(0),
                             new Rotation2d(Units.radiansToDegrees(0))),
                     List.of(
@@ -78,7 +371,7 @@ public class TrajectoryGenerator {
         }
 
         public Trajectory getDriveStraightReversed(){
-            return edu.wpi.first.math.trajectory.TrajectoryGenerator.generateTrajectory(
+            return generate("DriveStraightReversed",
                     new Pose2d(Units.inchesToMeters(120), Units.inchesToMeters(0),
                             new Rotation2d(Units.radiansToDegrees(0))),
                     List.of(
@@ -94,7 +387,7 @@ public class TrajectoryGenerator {
         //Start 8 Ball Trench Auto
         public Trajectory getCenterStartToEndOfTrench() {
         Trajectory centerStartToEndOfTrench;
-        centerStartToEndOfTrench = edu.wpi.first.math.trajectory.TrajectoryGenerator.generateTrajectory(
+        centerStartToEndOfTrench = generate("CenterStartToEndOfTrench",
                 new Pose2d(Units.inchesToMeters(0), Units.inchesToMeters(0), new Rotation2d(0)),
                 List.of(
                         new Translation2d(Units.inchesToMeters(60), Units.inchesToMeters(40)),
@@ -103,7 +396,7 @@ public class TrajectoryGenerator {
                 ),
                 new Pose2d(Units.inchesToMeters(200), Units.inchesToMeters(65.66), new Rotation2d(0)),
                 // Pass config
-                forwardConfigSlow
+                forwardConfigTrench
         );
         return centerStartToEndOfTrench;
 
@@ -111,7 +404,7 @@ public class TrajectoryGenerator {
 
     public Trajectory getSlalomStartToTrenchStart() {
         Trajectory slalomStartToTrenchStart;
-        slalomStartToTrenchStart = edu.wpi.first.math.trajectory.TrajectoryGenerator.generateTrajectory(
+        slalomStartToTrenchStart = generate("SlalomStartToTrenchStart",
         new Pose2d(Units.inchesToMeters(0), Units.inchesToMeters(0), new Rotation2d(0)),
         List.of(
                 new Translation2d(Units.inchesToMeters(53), Units.inchesToMeters(39)),
@@ -159,8 +452,11 @@ public class TrajectoryGenerator {
 //     }
 
     public Trajectory getTrenchStartToSpin() {
-        Trajectory trenchStartToSpin;
-        trenchStartToSpin = edu.wpi.first.math.trajectory.TrajectoryGenerator.generateTrajectory(
+        return trenchStartToSpin().trajectory();
+    }
+
+    private Generated trenchStartToSpin() {
+        return segment("TrenchStartToSpin",
                 new Pose2d(Units.inchesToMeters(83), Units.inchesToMeters(77), Rotation2d.fromDegrees(0)), 
                 List.of(
                         new Translation2d(Units.inchesToMeters(217), Units.inchesToMeters(77)),
@@ -172,12 +468,11 @@ public class TrajectoryGenerator {
                 new Pose2d(Units.inchesToMeters(200), Units.inchesToMeters(-25), Rotation2d.fromDegrees(180)), 
                 forwardConfigFast
                 );
-                return trenchStartToSpin;
     }
 
     public Trajectory getTrenchEndToTrenchStart() {
         Trajectory trenchEndToTrenchStart;
-        trenchEndToTrenchStart = edu.wpi.first.math.trajectory.TrajectoryGenerator.generateTrajectory(
+        trenchEndToTrenchStart = generate("TrenchEndToTrenchStart",
                 new Pose2d(Units.inchesToMeters(245), Units.inchesToMeters(53), Rotation2d.fromDegrees(180)), 
                 List.of(
                         new Translation2d(Units.inchesToMeters(183), Units.inchesToMeters(-20)),
@@ -191,8 +486,11 @@ public class TrajectoryGenerator {
     }
 
     public Trajectory getBounceStartToFirstBall() {
-        Trajectory bounceStartToFirstBall;
-        bounceStartToFirstBall = edu.wpi.first.math.trajectory.TrajectoryGenerator.generateTrajectory(
+        return bounceStartToFirstBall().trajectory();
+    }
+
+    private Generated bounceStartToFirstBall() {
+        return segment("BounceStartToFirstBall",
                 new Pose2d(Units.inchesToMeters(0), Units.inchesToMeters(0), Rotation2d.fromDegrees(0)), 
                 List.of(
                         new Translation2d(Units.inchesToMeters(62), Units.inchesToMeters(20))
@@ -200,14 +498,16 @@ public class TrajectoryGenerator {
                 new Pose2d(Units.inchesToMeters(65), Units.inchesToMeters(72), Rotation2d.fromDegrees(90)), 
                 forwardConfigFast
                 );
-                return bounceStartToFirstBall;
     }
 
     
     public Trajectory getSecondBallToThirdTrench() {
-        Trajectory secondBallToThirdTrench;
-        secondBallToThirdTrench = edu.wpi.first.math.trajectory.TrajectoryGenerator.generateTrajectory(
-                new Pose2d(Units.inchesToMeters(160), Units.inchesToMeters(68), Rotation2d.fromDegrees(270)), 
+        return secondBallToThirdTrench().trajectory();
+    }
+
+    private Generated secondBallToThirdTrench() {
+        return segment("SecondBallToThirdTrench",
+                new Pose2d(Units.inchesToMeters(175), Units.inchesToMeters(72), Rotation2d.fromDegrees(270)), 
                 List.of(
                         new Translation2d(Units.inchesToMeters(173), Units.inchesToMeters(0)),
                         new Translation2d(Units.inchesToMeters(164), Units.inchesToMeters(-75)),
@@ -216,25 +516,29 @@ public class TrajectoryGenerator {
                 new Pose2d(Units.inchesToMeters(240), Units.inchesToMeters(84), Rotation2d.fromDegrees(90)), 
                 forwardConfigFast
                 );
-                return secondBallToThirdTrench;
     }
 
     public Trajectory getThirdBallToFinalPose() {
-        Trajectory thirdBallToFinalPose;
-        thirdBallToFinalPose = edu.wpi.first.math.trajectory.TrajectoryGenerator.generateTrajectory(
-                new Pose2d(Units.inchesToMeters(240), Units.inchesToMeters(70), Rotation2d.fromDegrees(90)), 
+        return thirdBallToFinalPose().trajectory();
+    }
+
+    private Generated thirdBallToFinalPose() {
+        return segment("ThirdBallToFinalPose",
+                new Pose2d(Units.inchesToMeters(240), Units.inchesToMeters(84), Rotation2d.fromDegrees(90)), 
                 List.of(
                 ), 
                 new Pose2d(Units.inchesToMeters(290), Units.inchesToMeters(-20), Rotation2d.fromDegrees(180)), 
                 reverseConfigFast
                 );
-                return thirdBallToFinalPose;
     }
 
     public Trajectory getFirstBallToSecondTrench() {
-        Trajectory firstBallToSecondTrench;
-        firstBallToSecondTrench = edu.wpi.first.math.trajectory.TrajectoryGenerator.generateTrajectory(
-                new Pose2d(Units.inchesToMeters(77), Units.inchesToMeters(67), Rotation2d.fromDegrees(90)), 
+        return firstBallToSecondTrench().trajectory();
+    }
+
+    private Generated firstBallToSecondTrench() {
+        return segment("FirstBallToSecondTrench",
+                new Pose2d(Units.inchesToMeters(65), Units.inchesToMeters(72), Rotation2d.fromDegrees(90)), 
                 List.of(
                         new Translation2d(Units.inchesToMeters(73), Units.inchesToMeters(0)),
                         new Translation2d(Units.inchesToMeters(85), Units.inchesToMeters(-75)),
@@ -244,12 +548,11 @@ public class TrajectoryGenerator {
                 new Pose2d(Units.inchesToMeters(175), Units.inchesToMeters(72), Rotation2d.fromDegrees(270)), 
                 reverseConfigFast
                 );
-                return firstBallToSecondTrench;
     }
 
     public Trajectory getBounceToFinalPoseA() {
         Trajectory bounceToFinalPoseA;
-        bounceToFinalPoseA = edu.wpi.first.math.trajectory.TrajectoryGenerator.generateTrajectory(
+        bounceToFinalPoseA = generate("BounceToFinalPoseA",
                 new Pose2d(Units.inchesToMeters(74), Units.inchesToMeters(0), Rotation2d.fromDegrees(150)), 
                 List.of(
                 ), 
@@ -261,7 +564,7 @@ public class TrajectoryGenerator {
 
     public Trajectory getBounceToFinalPoseB() {
         Trajectory bounceToFinalPoseB;
-        bounceToFinalPoseB = edu.wpi.first.math.trajectory.TrajectoryGenerator.generateTrajectory(
+        bounceToFinalPoseB = generate("BounceToFinalPoseB",
                 new Pose2d(Units.inchesToMeters(48), Units.inchesToMeters(30), Rotation2d.fromDegrees(180)), 
                 List.of(
                 ), 
@@ -271,9 +574,22 @@ public class TrajectoryGenerator {
                 return bounceToFinalPoseB;
     }
 
+    //The whole Bounce path as one follow, every boundary is a reversal so it stops only there.
+    //Each segment starts where the one before it ends.
+    public Trajectory getBouncePath() {
+        return chain("BouncePath",
+                bounceStartToFirstBall(),
+                firstBallToSecondTrench(),
+                secondBallToThirdTrench(),
+                thirdBallToFinalPose());
+    }
+
     public Trajectory getSlalomToFinalPose() {
-        Trajectory slalomToFinalPose;
-        slalomToFinalPose = edu.wpi.first.math.trajectory.TrajectoryGenerator.generateTrajectory(
+        return slalomToFinalPose().trajectory();
+    }
+
+    private Generated slalomToFinalPose() {
+        return segment("SlalomToFinalPose",
                 new Pose2d(Units.inchesToMeters(200), Units.inchesToMeters(-25), Rotation2d.fromDegrees(180)), 
                 List.of(
                         new Translation2d(Units.inchesToMeters(160), Units.inchesToMeters(-25)),
@@ -284,12 +600,18 @@ public class TrajectoryGenerator {
                 new Pose2d(Units.inchesToMeters(-20), Units.inchesToMeters(68), Rotation2d.fromDegrees(180)), 
                 forwardConfigFast
                 );
-                return slalomToFinalPose;
+    }
+
+    //Spin and the way back as one follow, same config and direction so it doesn't slow at (200, -25)
+    public Trajectory getSlalomSpinToFinalPose() {
+        return chain("SlalomSpinToFinalPose",
+                trenchStartToSpin(),
+                slalomToFinalPose());
     }
 
     public Trajectory getHyperStartToSecondTurn() {
         Trajectory hyperStartToSecondTurn;
-        hyperStartToSecondTurn = edu.wpi.first.math.trajectory.TrajectoryGenerator.generateTrajectory(
+        hyperStartToSecondTurn = generate("HyperStartToSecondTurn",
                 new Pose2d(Units.inchesToMeters(0), Units.inchesToMeters(0), Rotation2d.fromDegrees(0)), 
                 List.of(
                         new Translation2d(Units.inchesToMeters(70), Units.inchesToMeters(0)),
@@ -325,7 +647,7 @@ public class TrajectoryGenerator {
 
     public Trajectory getHyperSecondTurnToThirdTurn() {
         Trajectory hyperSecondTurnToThirdTurn;
-        hyperSecondTurnToThirdTurn = edu.wpi.first.math.trajectory.TrajectoryGenerator.generateTrajectory(
+        hyperSecondTurnToThirdTurn = generate("HyperSecondTurnToThirdTurn",
                 new Pose2d(Units.inchesToMeters(200), Units.inchesToMeters(10), Rotation2d.fromDegrees(0)), 
                 List.of(
                         new Translation2d(Units.inchesToMeters(250), Units.inchesToMeters(15))
@@ -338,7 +660,7 @@ public class TrajectoryGenerator {
 
     public Trajectory getEndOfTrenchToStartOfTrench() {
             Trajectory endOfTrenchToStartOfTrench;
-            endOfTrenchToStartOfTrench = edu.wpi.first.math.trajectory.TrajectoryGenerator.generateTrajectory(
+            endOfTrenchToStartOfTrench = generate("EndOfTrenchToStartOfTrench",
                     new Pose2d(Units.inchesToMeters(200), Units.inchesToMeters(65.66), new Rotation2d(0)),
                     List.of(
                             new Translation2d(Units.inchesToMeters(120), Units.inchesToMeters(64))
@@ -354,7 +676,7 @@ public class TrajectoryGenerator {
         //Start 5 Ball Steal Auto
         public Trajectory getStealStartToStealBall() {
             Trajectory stealStartToStealSpot;
-            stealStartToStealSpot = edu.wpi.first.math.trajectory.TrajectoryGenerator.generateTrajectory(
+            stealStartToStealSpot = generate("StealStartToStealBall",
                     new Pose2d(Units.inchesToMeters(0), Units.inchesToMeters(0), new Rotation2d(0)),
                     List.of(
                             new Translation2d(Units.inchesToMeters(60), Units.inchesToMeters(0))
@@ -368,7 +690,7 @@ public class TrajectoryGenerator {
 
         public Trajectory getStealStartToStealBallV2() {
             Trajectory stealStartToStealSpot;
-            stealStartToStealSpot = edu.wpi.first.math.trajectory.TrajectoryGenerator.generateTrajectory(
+            stealStartToStealSpot = generate("StealStartToStealBallV2",
                 new Pose2d(Units.inchesToMeters(0), Units.inchesToMeters(0), new Rotation2d(0)),
                 List.of(
                         new Translation2d(Units.inchesToMeters(75), Units.inchesToMeters(-19))
@@ -382,7 +704,7 @@ public class TrajectoryGenerator {
 
         public Trajectory getStealStartToStealBallV3() {
             Trajectory stealStartToStealSpot;
-            stealStartToStealSpot = edu.wpi.first.math.trajectory.TrajectoryGenerator.generateTrajectory(
+            stealStartToStealSpot = generate("StealStartToStealBallV3",
                     new Pose2d(Units.inchesToMeters(126), Units.inchesToMeters(-245), new Rotation2d(0)),
                     List.of(
                             new Translation2d(Units.inchesToMeters(201), Units.inchesToMeters(-264))
@@ -396,7 +718,7 @@ public class TrajectoryGenerator {
 
         public Trajectory getStealBallToCenterShot() {
             Trajectory stealSpotToCenterShot;
-            stealSpotToCenterShot = edu.wpi.first.math.trajectory.TrajectoryGenerator.generateTrajectory(
+            stealSpotToCenterShot = generate("StealBallToCenterShot",
                     new Pose2d(Units.inchesToMeters(130), Units.inchesToMeters(0), new Rotation2d(0)),
                     List.of(
                             new Translation2d(Units.inchesToMeters(60), Units.inchesToMeters(60))
@@ -410,7 +732,7 @@ public class TrajectoryGenerator {
 
     public Trajectory getStealBallToCenterShotV2() {
         Trajectory stealSpotToCenterShot;
-        stealSpotToCenterShot = edu.wpi.first.math.trajectory.TrajectoryGenerator.generateTrajectory(
+        stealSpotToCenterShot = generate("StealBallToCenterShotV2",
                 new Pose2d(Units.inchesToMeters(139), Units.inchesToMeters(-55), new Rotation2d(-45)),
                 List.of(
                         new Translation2d(Units.inchesToMeters(107), Units.inchesToMeters(5))
@@ -426,7 +748,7 @@ public class TrajectoryGenerator {
         //Start 10 Ball Rendezvous/Trench Auto
         public Trajectory getCenterStartToRendezvous2ball() {
             Trajectory centerStartToRendezvous2Ball;
-            centerStartToRendezvous2Ball = edu.wpi.first.math.trajectory.TrajectoryGenerator.generateTrajectory(
+            centerStartToRendezvous2Ball = generate("CenterStartToRendezvous2ball",
                     new Pose2d(Units.inchesToMeters(0), Units.inchesToMeters(0), new Rotation2d(0)),
                     List.of(
                             new Translation2d(Units.inchesToMeters(80), Units.inchesToMeters(40))
@@ -440,7 +762,7 @@ public class TrajectoryGenerator {
 
         public Trajectory getRendezvous2BallToStartOfTrench() {
             Trajectory rendezvous2BallToStartOfTrench;
-            rendezvous2BallToStartOfTrench = edu.wpi.first.math.trajectory.TrajectoryGenerator.generateTrajectory(
+            rendezvous2BallToStartOfTrench = generate("Rendezvous2BallToStartOfTrench",
                     new Pose2d(Units.inchesToMeters(155), Units.inchesToMeters(-10), new Rotation2d(Units.degreesToRadians(-60))),
                     List.of(
                             new Translation2d(Units.inchesToMeters(100), Units.inchesToMeters(30))
@@ -454,14 +776,14 @@ public class TrajectoryGenerator {
 
         public Trajectory getStartOfTrenchToEndOfTrench() {
             Trajectory startOfTrenchToEndOfTrench;
-            startOfTrenchToEndOfTrench = edu.wpi.first.math.trajectory.TrajectoryGenerator.generateTrajectory(
+            startOfTrenchToEndOfTrench = generate("StartOfTrenchToEndOfTrench",
                     new Pose2d(Units.inchesToMeters(70), Units.inchesToMeters(65), new Rotation2d(0)),
                     List.of(
                             new Translation2d(Units.inchesToMeters(100), Units.inchesToMeters(65.66))
                     ),
                     new Pose2d(Units.inchesToMeters(300), Units.inchesToMeters(65.66), new Rotation2d(Units.degreesToRadians(0))),
                     // Pass config
-                    forwardConfigSlow
+                    forwardConfigTrench
             );
             return startOfTrenchToEndOfTrench;
         }
@@ -469,7 +791,7 @@ public class TrajectoryGenerator {
         //Start 3 Ball Safe Auto
         public Trajectory getLeftStartToSafe(){
             Trajectory leftStartToSafe;
-            leftStartToSafe = edu.wpi.first.math.trajectory.TrajectoryGenerator.generateTrajectory(
+            leftStartToSafe = generate("LeftStartToSafe",
                     new Pose2d(Units.inchesToMeters(0), Units.inchesToMeters(0), new Rotation2d(Units.degreesToRadians(0))),
                     List.of(
                             new Translation2d(Units.inchesToMeters(-40), Units.inchesToMeters(0))
@@ -483,7 +805,7 @@ public class TrajectoryGenerator {
 
         public Trajectory getLeftStartToSafeTest() {
                 Trajectory leftStartToSafe;
-                leftStartToSafe = edu.wpi.first.math.trajectory.TrajectoryGenerator.generateTrajectory(
+                leftStartToSafe = generate("LeftStartToSafeTest",
                         new Pose2d(Units.inchesToMeters(0), Units.inchesToMeters(0), new Rotation2d(Units.degreesToRadians(0))),
                         List.of(
                                 new Translation2d(Units.inchesToMeters(-50), Units.inchesToMeters(0)),
@@ -501,7 +823,7 @@ public class TrajectoryGenerator {
 
         public Trajectory getSafeToLeftStartTest() {
                 Trajectory safeToLeftStart;
-                safeToLeftStart = edu.wpi.first.math.trajectory.TrajectoryGenerator.generateTrajectory(
+                safeToLeftStart = generate("SafeToLeftStartTest",
                         new Pose2d(Units.inchesToMeters(-300), Units.inchesToMeters(0), new Rotation2d(Units.degreesToRadians(0))),
                         List.of(
                                 new Translation2d(Units.inchesToMeters(-250), Units.inchesToMeters(0)),
@@ -519,7 +841,7 @@ public class TrajectoryGenerator {
 
     public Trajectory getLeftStartToSafeForward(){
         Trajectory leftStartToSafe;
-        leftStartToSafe = edu.wpi.first.math.trajectory.TrajectoryGenerator.generateTrajectory(
+        leftStartToSafe = generate("LeftStartToSafeForward",
                 new Pose2d(Units.inchesToMeters(0), Units.inchesToMeters(0), new Rotation2d(Units.degreesToRadians(0))),
                 List.of(
                         new Translation2d(Units.inchesToMeters(40), Units.inchesToMeters(0))
@@ -532,7 +854,7 @@ public class TrajectoryGenerator {
     }
     public Trajectory getStartToTrenchStart(){
         Trajectory startToTrenchStart;
-        startToTrenchStart = edu.wpi.first.math.trajectory.TrajectoryGenerator.generateTrajectory(
+        startToTrenchStart = generate("StartToTrenchStart",
                 new Pose2d(Units.inchesToMeters(0), Units.inchesToMeters(0), new Rotation2d(Units.degreesToRadians(0))),
                 List.of(
                         new Translation2d(Units.inchesToMeters(40), Units.inchesToMeters(0))
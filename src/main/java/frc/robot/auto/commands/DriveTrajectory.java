@@ -1,64 +1,117 @@
 package frc.robot.auto.commands;
 
-import edu.wpi.first.math.controller.PIDController;
-import edu.wpi.first.math.controller.RamseteController;
-import edu.wpi.first.math.controller.SimpleMotorFeedforward;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.trajectory.Trajectory;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.Command;
-import edu.wpi.first.wpilibj2.command.RamseteCommand;
 import frc.robot.Constants;
+import frc.robot.auto.PackedTrajectory;
+import frc.robot.auto.TrajectoryGenerator;
 import frc.robot.subsystems.Drive;
+import frc.robot.util.AsyncLogger;
 
+/**
+ * Follows a path with a RAMSETE controller, closing wheel speeds on the TalonFX velocity loop
+ * through {@link Drive#setWheelVelocities}. Replaces building a RamseteCommand per segment: the
+ * controller gains and kinematics are shared constants, and only the timer and the trajectory
+ * cursor are reset for each run. Nothing is allocated while following.
+ *
+ * <p>The path is only waited for when the command starts, so build it with
+ * {@link #follow(Supplier)} and generation runs in the background until then.
+ *
+ * <p>Logs the tracking error every loop: along track and cross track in the path's frame, and
+ * heading.
+ */
 public class DriveTrajectory extends Command {
 
     private static final Drive mDrive = Drive.getInstance();
+    private static final double kHalfTrackWidthMeters = Constants.kTrackWidthMeters / 2;
+
+    private static final AsyncLogger.BooleanChannel runningLog = AsyncLogger.getInstance().booleanChannel("Auto/Running Path");
+    private static final AsyncLogger.DoubleChannel alongTrackLog = AsyncLogger.getInstance().doubleChannel("Auto/Along Track Error m");
+    private static final AsyncLogger.DoubleChannel crossTrackLog = AsyncLogger.getInstance().doubleChannel("Auto/Cross Track Error m");
+    private static final AsyncLogger.DoubleChannel headingLog = AsyncLogger.getInstance().doubleChannel("Auto/Heading Error deg");
 
-    Trajectory trajectory;
-    RamseteCommand command;
-    boolean isFinished;
+    private final Supplier<PackedTrajectory> source;
+    private final Timer timer = new Timer();
+    private PackedTrajectory trajectory;
+    private PackedTrajectory.Cursor cursor;
+
+    /**
+     * Starts generating a path on the generator's pool and returns the command that follows it,
+     * e.g. {@code DriveTrajectory.follow(mTrajectories::getBouncePath)}.
+     */
+    public static DriveTrajectory follow(Supplier<Trajectory> path) {
+        return new DriveTrajectory(TrajectoryGenerator.getInstance().asyncPacked(path));
+    }
 
-    public DriveTrajectory(Trajectory trajectory){
-        this.trajectory = trajectory;
+    public DriveTrajectory(CompletableFuture<PackedTrajectory> trajectory) {
+        this(trajectory::join);
+    }
+
+    public DriveTrajectory(Supplier<PackedTrajectory> trajectory) {
+        this.source = trajectory;
+        addRequirements(mDrive);
     }
 
     @Override
     public void initialize() {
-        System.out.println("Trajectory Started");
-        isFinished = false;
-        new RamseteCommand(
-                trajectory,
-                mDrive::getPose,
-                new RamseteController(Constants.kRamseteB, Constants.kRamseteZeta),
-                new SimpleMotorFeedforward(Constants.ksVolts,
-                        Constants.kvVoltSecondsPerMeter,
-                        Constants.kaVoltSecondsSquaredPerMeter),
-                Constants.kDriveKinematics,
-                mDrive::getWheelSpeeds,
-                new PIDController(Constants.kPDriveVel, 0, Constants.kDDriveVel),
-                new PIDController(Constants.kPDriveVel, 0, Constants.kDDriveVel),
-                // RamseteCommand passes volts to the callback
-                mDrive::tankDriveVolts,
-                mDrive
-        );
+        PackedTrajectory next = source.get();
+        if (next != trajectory) {
+            trajectory = next;
+            cursor = next.cursor();
+        }
+        cursor.reset();
+        timer.restart();
+        runningLog.log(true);
     }
 
-
     @Override
     public void execute() {
-        if(command.isFinished()){
-            isFinished = true;
-        }
-        System.out.println("Running Path");
+        cursor.sample(timer.get());
+        Pose2d pose = mDrive.getPose();
+        double cos = pose.getRotation().getCos();
+        double sin = pose.getRotation().getSin();
+        double dx = cursor.getX() - pose.getX();
+        double dy = cursor.getY() - pose.getY();
+        double headingError = MathUtil.angleModulus(cursor.getHeadingRadians() - pose.getRotation().getRadians());
+
+        //RAMSETE, errors in the robot's frame
+        double errorX = dx * cos + dy * sin;
+        double errorY = -dx * sin + dy * cos;
+        double velocityRef = cursor.getVelocity();
+        double omegaRef = velocityRef * cursor.getCurvature();
+        double k = 2 * Constants.kRamseteZeta
+                * Math.sqrt(omegaRef * omegaRef + Constants.kRamseteB * velocityRef * velocityRef);
+        double velocity = velocityRef * Math.cos(headingError) + k * errorX;
+        double omega = omegaRef + k * headingError + Constants.kRamseteB * velocityRef * sinc(headingError) * errorY;
+        mDrive.setWheelVelocities(velocity - omega * kHalfTrackWidthMeters, velocity + omega * kHalfTrackWidthMeters);
+
+        //Tracking error in the path's frame
+        double pathCos = Math.cos(cursor.getHeadingRadians());
+        double pathSin = Math.sin(cursor.getHeadingRadians());
+        alongTrackLog.log(dx * pathCos + dy * pathSin);
+        crossTrackLog.log(-dx * pathSin + dy * pathCos);
+        headingLog.log(Math.toDegrees(headingError));
     }
 
     @Override
     public void end(boolean interrupted) {
+        timer.stop();
         mDrive.tankDriveVolts(0,0);
-        System.out.println("Trajectory Finished");
+        runningLog.log(false);
     }
 
     @Override
     public boolean isFinished() {
-        return isFinished;
+        return timer.hasElapsed(trajectory.getTotalTimeSeconds());
+    }
+
+    private static double sinc(double x) {
+        return Math.abs(x) < 1e-9 ? 1 - x * x / 6 : Math.sin(x) / x;
     }
 }
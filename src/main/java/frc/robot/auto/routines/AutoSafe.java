@@ -7,14 +7,10 @@
 
 package frc.robot.auto.routines;
 
-import edu.wpi.first.math.controller.PIDController;
-import edu.wpi.first.math.controller.RamseteController;
-import edu.wpi.first.math.controller.SimpleMotorFeedforward;
 import edu.wpi.first.wpilibj2.command.ParallelCommandGroup;
-import edu.wpi.first.wpilibj2.command.RamseteCommand;
 import edu.wpi.first.wpilibj2.command.WaitCommand;
-import frc.robot.Constants;
 import frc.robot.auto.TrajectoryGenerator;
+import frc.robot.auto.commands.DriveTrajectory;
 import frc.robot.auto.commands.ResetOdometryAuto;
 import frc.robot.auto.commands.StopTrajectory;
 import frc.robot.subsystems.Drive;
@@ -33,20 +29,7 @@ public class AutoSafe extends ParallelCommandGroup {
         //         new AutoShootNear()
         //         ),
             new WaitCommand(3),
-            new RamseteCommand(
-                    mTrajectories.getLeftStartToSafe(),
-                    mDrive::getPose,
-                    new RamseteController(Constants.kRamseteB, Constants.kRamseteZeta),
-                    new SimpleMotorFeedforward(Constants.ksVolts,
-                            Constants.kvVoltSecondsPerMeter,
-                            Constants.kaVoltSecondsSquaredPerMeter),
-                    Constants.kDriveKinematics,
-                    mDrive::getWheelSpeeds,
-                    new PIDController(Constants.kPDriveVel, 0, Constants.kDDriveVel),
-                    new PIDController(Constants.kPDriveVel, 0, Constants.kDDriveVel),
-                    // RamseteCommand passes volts to the callback
-                    mDrive::tankDriveVolts,
-                    mDrive),
+            DriveTrajectory.follow(mTrajectories::getLeftStartToSafe),
             new StopTrajectory()
     );
   }
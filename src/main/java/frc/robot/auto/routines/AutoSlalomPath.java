@@ -7,14 +7,9 @@
 
 package frc.robot.auto.routines;
 
-import edu.wpi.first.math.controller.PIDController;
-import edu.wpi.first.math.controller.RamseteController;
-import edu.wpi.first.math.controller.SimpleMotorFeedforward;
-import edu.wpi.first.wpilibj2.command.RamseteCommand;
 import edu.wpi.first.wpilibj2.command.SequentialCommandGroup;
-import edu.wpi.first.wpilibj2.command.WaitCommand;
-import frc.robot.Constants;
 import frc.robot.auto.TrajectoryGenerator;
+import frc.robot.auto.commands.DriveTrajectory;
 import frc.robot.auto.commands.ResetOdometryAuto;
 import frc.robot.auto.commands.StopTrajectory;
 import frc.robot.subsystems.Drive;
@@ -30,36 +25,8 @@ public class AutoSlalomPath extends SequentialCommandGroup {
    */
   public AutoSlalomPath() {
       addCommands(
-              new RamseteCommand(
-                        mTrajectories.getSlalomStartToTrenchStart(),
-                        mDrive::getPose,
-                        new RamseteController(Constants.kRamseteB, Constants.kRamseteZeta),
-                        new SimpleMotorFeedforward(Constants.ksVolts,
-                                Constants.kvVoltSecondsPerMeter,
-                                Constants.kaVoltSecondsSquaredPerMeter),
-                        Constants.kDriveKinematics,
-                        mDrive::getWheelSpeeds,
-                        new PIDController(Constants.kPDriveVel, 0, Constants.kDDriveVel),
-                        new PIDController(Constants.kPDriveVel, 0, Constants.kDDriveVel),
-                        // RamseteCommand passes volts to the callback
-                        mDrive::tankDriveVolts,
-                        mDrive), 
+              DriveTrajectory.follow(mTrajectories::getSlalomStartToTrenchStart), 
             new StopTrajectory()
-        //     new RamseteCommand(
-        //                 mTrajectories.getSlalomToFinalPose(),
-        //                 mDrive::getPose,
-        //                 new RamseteController(Constants.kRamseteB, Constants.kRamseteZeta),
-        //                 new SimpleMotorFeedforward(Constants.ksVolts,
-        //                         Constants.kvVoltSecondsPerMeter,
-        //                         Constants.kaVoltSecondsSquaredPerMeter),
-        //                 Constants.kDriveKinematics,
-        //                 mDrive::getWheelSpeeds,
-        //                 new PIDController(Constants.kPDriveVel, 0, Constants.kDDriveVel),
-        //                 new PIDController(Constants.kPDriveVel, 0, Constants.kDDriveVel),
-        //                 // RamseteCommand passes volts to the callback
-        //                 mDrive::tankDriveVolts,
-        //                 mDrive), 
-        //     new StopTrajectory()
     );
   }
 }
@@ -7,15 +7,11 @@
 
 package frc.robot.auto.routines;
 
-import edu.wpi.first.math.controller.PIDController;
-import edu.wpi.first.math.controller.RamseteController;
-import edu.wpi.first.math.controller.SimpleMotorFeedforward;
 import edu.wpi.first.wpilibj2.command.ParallelCommandGroup;
-import edu.wpi.first.wpilibj2.command.RamseteCommand;
 import edu.wpi.first.wpilibj2.command.SequentialCommandGroup;
 import edu.wpi.first.wpilibj2.command.WaitCommand;
-import frc.robot.Constants;
 import frc.robot.auto.TrajectoryGenerator;
+import frc.robot.auto.commands.DriveTrajectory;
 import frc.robot.auto.commands.ResetOdometryAuto;
 import frc.robot.auto.commands.StopTrajectory;
 import frc.robot.subsystems.Drive;
@@ -29,36 +25,10 @@ public class AutoTest extends ParallelCommandGroup {
   public AutoTest() {
     addCommands(new SequentialCommandGroup(
             new ResetOdometryAuto(),
-            new RamseteCommand(
-            mTrajectories.getDriveStraight(),
-            mDrive::getPose,
-            new RamseteController(Constants.kRamseteB, Constants.kRamseteZeta),
-            new SimpleMotorFeedforward(Constants.ksVolts,
-                    Constants.kvVoltSecondsPerMeter,
-                    Constants.kaVoltSecondsSquaredPerMeter),
-            Constants.kDriveKinematics,
-            mDrive::getWheelSpeeds,
-            new PIDController(Constants.kPDriveVel, 0, Constants.kDDriveVel),
-            new PIDController(Constants.kPDriveVel, 0, Constants.kDDriveVel),
-            // RamseteCommand passes volts to the callback
-            mDrive::tankDriveVolts,
-            mDrive),
+            DriveTrajectory.follow(mTrajectories::getDriveStraight),
             new StopTrajectory(),
             new WaitCommand(.5),
-            new RamseteCommand(
-            mTrajectories.getDriveStraightReversed(),
-            mDrive::getPose,
-            new RamseteController(Constants.kRamseteB, Constants.kRamseteZeta),
-            new SimpleMotorFeedforward(Constants.ksVolts,
-                    Constants.kvVoltSecondsPerMeter,
-                    Constants.kaVoltSecondsSquaredPerMeter),
-            Constants.kDriveKinematics,
-            mDrive::getWheelSpeeds,
-            new PIDController(Constants.kPDriveVel, 0, Constants.kDDriveVel),
-            new PIDController(Constants.kPDriveVel, 0, Constants.kDDriveVel),
-            // RamseteCommand passes volts to the callback
-            mDrive::tankDriveVolts,
-            mDrive),
+            DriveTrajectory.follow(mTrajectories::getDriveStraightReversed),
             new StopTrajectory()
     ));
   }
@@ -7,17 +7,13 @@
 
 package frc.robot.auto.routines;
 
-import edu.wpi.first.math.controller.PIDController;
-import edu.wpi.first.math.controller.RamseteController;
-import edu.wpi.first.math.controller.SimpleMotorFeedforward;
 import edu.wpi.first.wpilibj2.command.ParallelDeadlineGroup;
-import edu.wpi.first.wpilibj2.command.RamseteCommand;
 import edu.wpi.first.wpilibj2.command.SequentialCommandGroup;
 import edu.wpi.first.wpilibj2.command.WaitCommand;
-import frc.robot.Constants;
 import frc.robot.auto.TrajectoryGenerator;
 import frc.robot.auto.commands.AutoFeedCells;
 import frc.robot.auto.commands.AutoShootNear;
+import frc.robot.auto.commands.DriveTrajectory;
 import frc.robot.auto.commands.ResetOdometryAuto;
 import frc.robot.auto.commands.StopTrajectory;
 import frc.robot.commands.sequences.AutoShootMidShot;
@@ -43,39 +39,13 @@ public class AutoTrench8Ball extends SequentialCommandGroup {
                 new ResetHopper(),
                 //Intake in Parallel
                 new ParallelDeadlineGroup(
-                        new RamseteCommand(
-                        mTrajectories.getCenterStartToEndOfTrench(),
-                        mDrive::getPose,
-                        new RamseteController(Constants.kRamseteB, Constants.kRamseteZeta),
-                        new SimpleMotorFeedforward(Constants.ksVolts,
-                                Constants.kvVoltSecondsPerMeter,
-                                Constants.kaVoltSecondsSquaredPerMeter),
-                        Constants.kDriveKinematics,
-                        mDrive::getWheelSpeeds,
-                        new PIDController(Constants.kPDriveVel, 0, Constants.kDDriveVel),
-                        new PIDController(Constants.kPDriveVel, 0, Constants.kDDriveVel),
-                        // RamseteCommand passes volts to the callback
-                        mDrive::tankDriveVolts,
-                        mDrive), 
+                        DriveTrajectory.follow(mTrajectories::getCenterStartToEndOfTrench), 
                         new IntakeCells()),
                 new StopTrajectory(),
                 new WaitCommand(.25),
                 new IndexCells(),
                 new AutoShootMidShot(),
-                new RamseteCommand(
-                        mTrajectories.getEndOfTrenchToStartOfTrench(),
-                        mDrive::getPose,
-                        new RamseteController(Constants.kRamseteB, Constants.kRamseteZeta),
-                        new SimpleMotorFeedforward(Constants.ksVolts,
-                                Constants.kvVoltSecondsPerMeter,
-                                Constants.kaVoltSecondsSquaredPerMeter),
-                        Constants.kDriveKinematics,
-                        mDrive::getWheelSpeeds,
-                        new PIDController(Constants.kPDriveVel, 0, Constants.kDDriveVel),
-                        new PIDController(Constants.kPDriveVel, 0, Constants.kDDriveVel),
-                        // RamseteCommand passes volts to the callback
-                        mDrive::tankDriveVolts,
-                        mDrive),
+                DriveTrajectory.follow(mTrajectories::getEndOfTrenchToStartOfTrench),
                 new StopTrajectory(),
                 new WaitCommand(1),
                 new ParallelDeadlineGroup(
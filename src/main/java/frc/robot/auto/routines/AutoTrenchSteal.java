@@ -7,16 +7,12 @@
 
 package frc.robot.auto.routines;
 
-import edu.wpi.first.math.controller.PIDController;
-import edu.wpi.first.math.controller.RamseteController;
-import edu.wpi.first.math.controller.SimpleMotorFeedforward;
 import edu.wpi.first.wpilibj2.command.ParallelDeadlineGroup;
-import edu.wpi.first.wpilibj2.command.RamseteCommand;
 import edu.wpi.first.wpilibj2.command.SequentialCommandGroup;
 import edu.wpi.first.wpilibj2.command.WaitCommand;
-import frc.robot.Constants;
 import frc.robot.auto.TrajectoryGenerator;
 import frc.robot.auto.commands.AutoShootNear;
+import frc.robot.auto.commands.DriveTrajectory;
 import frc.robot.auto.commands.ResetOdometryAuto;
 import frc.robot.auto.commands.StopTrajectory;
 import frc.robot.commands.SetTurretDriverMode;
@@ -38,38 +34,12 @@ public class AutoTrenchSteal extends SequentialCommandGroup {
                 new SetTurretDriverMode(),
                 //Intake in Parallel
                 new ParallelDeadlineGroup(
-                        new RamseteCommand(
-                        mTrajectories.getStealStartToStealBall(),
-                        mDrive::getPose,
-                        new RamseteController(Constants.kRamseteB, Constants.kRamseteZeta),
-                        new SimpleMotorFeedforward(Constants.ksVolts,
-                                Constants.kvVoltSecondsPerMeter,
-                                Constants.kaVoltSecondsSquaredPerMeter),
-                        Constants.kDriveKinematics,
-                        mDrive::getWheelSpeeds,
-                        new PIDController(Constants.kPDriveVel, 0, Constants.kDDriveVel),
-                        new PIDController(Constants.kPDriveVel, 0, Constants.kDDriveVel),
-                        // RamseteCommand passes volts to the callback
-                        mDrive::tankDriveVolts,
-                        mDrive), 
+                        DriveTrajectory.follow(mTrajectories::getStealStartToStealBall), 
                         new IntakeCells()),
                 new StopTrajectory(),
                 new IndexCells(),
                 new ParallelDeadlineGroup(                
-                        new RamseteCommand(
-                        mTrajectories.getStealBallToCenterShot(),
-                        mDrive::getPose,
-                        new RamseteController(Constants.kRamseteB, Constants.kRamseteZeta),
-                        new SimpleMotorFeedforward(Constants.ksVolts,
-                                Constants.kvVoltSecondsPerMeter,
-                                Constants.kaVoltSecondsSquaredPerMeter),
-                        Constants.kDriveKinematics,
-                        mDrive::getWheelSpeeds,
-                        new PIDController(Constants.kPDriveVel, 0, Constants.kDDriveVel),
-                        new PIDController(Constants.kPDriveVel, 0, Constants.kDDriveVel),
-                        // RamseteCommand passes volts to the callback
-                        mDrive::tankDriveVolts,
-                        mDrive), 
+                        DriveTrajectory.follow(mTrajectories::getStealBallToCenterShot), 
                         new SetTurretDriverMode()),
                 new StopTrajectory(),
                 new ParallelDeadlineGroup(
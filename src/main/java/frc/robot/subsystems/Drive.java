@@ -1,26 +1,46 @@
 package frc.robot.subsystems;
 
 import com.ctre.phoenix.motorcontrol.ControlMode;
+import com.ctre.phoenix.motorcontrol.DemandType;
 import com.ctre.phoenix.motorcontrol.FeedbackDevice;
 import com.ctre.phoenix.motorcontrol.NeutralMode;
 import com.ctre.phoenix.motorcontrol.StatusFrame;
+import com.ctre.phoenix.motorcontrol.StatusFrameEnhanced;
 import com.ctre.phoenix.motorcontrol.TalonFXInvertType;
 import com.ctre.phoenix.motorcontrol.can.TalonFX;
 import com.ctre.phoenix.motorcontrol.can.TalonFXConfiguration;
 import com.ctre.phoenix.motorcontrol.can.TalonSRX;
 import com.ctre.phoenix.motorcontrol.can.WPI_TalonFX;
 import com.ctre.phoenix.sensors.PigeonIMU;
+import com.ctre.phoenix.sensors.PigeonIMU_StatusFrame;
 
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import edu.wpi.first.math.controller.SimpleMotorFeedforward;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
-import edu.wpi.first.math.kinematics.DifferentialDriveOdometry;
 import edu.wpi.first.math.kinematics.DifferentialDriveWheelSpeeds;
 import edu.wpi.first.math.util.Units;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.drive.DifferentialDrive;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.Constants;
 import frc.robot.RobotContainer;
 import frc.robot.RobotMap;
+import frc.robot.util.AsyncLogger;
+import frc.robot.util.CanFrameScheduler;
+import frc.robot.util.ControlModeState;
+import frc.robot.util.ControlThread;
+import frc.robot.util.LoopProfiler;
+import frc.robot.util.DeviceConfigurator;
+import frc.robot.util.MotorConfig;
+import frc.robot.util.MotorOutput;
+import frc.robot.util.Telemetry;
+import frc.robot.vision.VisionMeasurement;
 
 public class Drive extends SubsystemBase {
 
@@ -28,7 +48,7 @@ public class Drive extends SubsystemBase {
     JOYSTICK, PATH_FOLLOWING
   }
 
-  private DriveControlMode driveControlMode = DriveControlMode.JOYSTICK;
+  private final ControlModeState<DriveControlMode> controlMode = new ControlModeState<>(DriveControlMode.JOYSTICK);
 
   // Left Drive
   private WPI_TalonFX leftMaster;
@@ -38,20 +58,82 @@ public class Drive extends SubsystemBase {
   private WPI_TalonFX rightMaster;
   private TalonFX rightSlave;
 
+  private final MotorConfig leftMasterConfig;
+  private final MotorConfig rightMasterConfig;
+
+  // Every set() on the masters goes through these so unchanged outputs aren't resent.
+  // Only the control thread writes to them, everything else hands it a demand.
+  private final MotorOutput leftOutput;
+  private final MotorOutput rightOutput;
+
+  // What the control thread should send to each master, written by the main thread only through
+  // setDemand(). A sequence number guards the fields so nothing is allocated per loop: it is odd
+  // while a write is in progress, and a read that doesn't see the same even number before and
+  // after keeps sending the last demand it read whole.
+  private volatile int demandSequence = 0;
+  private volatile ControlMode demandMode = ControlMode.PercentOutput;
+  private volatile double demandLeft = 0;
+  private volatile double demandRight = 0;
+  private volatile double demandLeftFeedforward = 0;
+  private volatile double demandRightFeedforward = 0;
+
+  // Last demand the control thread read whole, only it touches these
+  private ControlMode sentMode = ControlMode.PercentOutput;
+  private double sentLeft = 0;
+  private double sentRight = 0;
+  private double sentLeftFeedforward = 0;
+  private double sentRightFeedforward = 0;
+
   private TalonSRX pigeonTalon;
 
   // Gyro
   private PigeonIMU gyroPigeon;
-  private double[] yprPigeon = new double[3];
   private boolean isCalibrating = false;
-  private double gyroYawOffsetAngleDeg = 0;
+  private volatile double gyroYawOffsetAngleDeg = 0;
+
+  // Sensor sample shared by every getter for one loop
+  private final DriveInputs inputs = new DriveInputs();
 
   // Differential Drive
   private DifferentialDrive drive;
 
   //Path Following
-  private final DifferentialDriveOdometry odometry;
-
+  // Only touched by updateOdometry() after construction
+  private final DrivePoseEstimator poseEstimator;
+  private final DriveInputs odometryInputs = new DriveInputs();
+
+  // Written only by updateOdometry(), Pose2d is immutable so readers never need a lock
+  private volatile Pose2d latestPose = new Pose2d();
+  // Handed to updateOdometry(), applied at the start of its next cycle
+  private final AtomicReference<Pose2d> pendingReset = new AtomicReference<>();
+  private final AtomicReference<VisionMeasurement> pendingVision = new AtomicReference<>();
+
+
+  // Onboard velocity loop, kPDriveVel is volts per m/s of error and the Talon wants
+  // output units (1023 = full) per tick/100ms of error
+  private static final double kPVelocityTalon =
+      Constants.kPDriveVel / 12.0 * 1023.0 * DriveInputs.kMetersPerSecondPerNativeVelocity;
+  // kDDriveVel is volts per m/s of error change per second, the Talon's derivative is the error
+  // change over one 1ms loop, so the gain is per millisecond
+  private static final double kTalonLoopSeconds = 0.001;
+  private static final double kDVelocityTalon =
+      Constants.kDDriveVel / kTalonLoopSeconds / 12.0 * 1023.0 * DriveInputs.kMetersPerSecondPerNativeVelocity;
+
+  private final SimpleMotorFeedforward feedforward = new SimpleMotorFeedforward(Constants.ksVolts,
+      Constants.kvVoltSecondsPerMeter, Constants.kaVoltSecondsSquaredPerMeter);
+  private double lastLeftSetpoint = 0;
+  private double lastRightSetpoint = 0;
+  private double lastSetpointTime = 0;
+  // Set by the mode hook on whichever thread changed the mode, taken by setWheelVelocities()
+  private final AtomicBoolean pathStarted = new AtomicBoolean();
+
+  // Logged under the column names tools/PoseReplay reads
+  private final AsyncLogger.DoubleChannel leftMetersLog = AsyncLogger.getInstance().doubleChannel("Drive/left_m");
+  private final AsyncLogger.DoubleChannel rightMetersLog = AsyncLogger.getInstance().doubleChannel("Drive/right_m");
+  private final AsyncLogger.DoubleChannel headingLog = AsyncLogger.getInstance().doubleChannel("Drive/heading_deg");
+  private final AsyncLogger.PoseChannel poseLog = AsyncLogger.getInstance().poseChannel("Drive/Pose");
+  private final AsyncLogger.DoubleChannel modeLog = AsyncLogger.getInstance().doubleChannel("Drive/Mode");
+  private final LoopProfiler.Section periodicProfile = LoopProfiler.getInstance().section("Drive.periodic()");
 
   // Subsystem Instance
   private final static Drive INSTANCE = new Drive();
@@ -64,86 +146,110 @@ public class Drive extends SubsystemBase {
     rightMaster = new WPI_TalonFX(RobotMap.rightFrontDrive);
     rightSlave = new TalonFX(RobotMap.rightRearDrive);
 
-    pigeonTalon = new TalonSRX(9);
-
-    TalonFXConfiguration configs = new TalonFXConfiguration();
-    configs.primaryPID.selectedFeedbackSensor = FeedbackDevice.IntegratedSensor;
-
-    leftMaster.configAllSettings(configs);
-    leftSlave.configAllSettings(configs);
+    leftMasterConfig = new MotorConfig("Left Drive", leftMaster);
+    rightMasterConfig = new MotorConfig("Right Drive", rightMaster);
 
-    rightMaster.configAllSettings(configs);
-    rightSlave.configAllSettings(configs);
+    leftOutput = new MotorOutput("Left Drive", leftMaster);
+    rightOutput = new MotorOutput("Right Drive", rightMaster);
 
-    leftMaster.setInverted(TalonFXInvertType.Clockwise);
-    leftSlave.setInverted(TalonFXInvertType.FollowMaster);
+    pigeonTalon = new TalonSRX(9);
 
-    leftMaster.setNeutralMode(NeutralMode.Brake);
-    leftSlave.setNeutralMode(NeutralMode.Brake);
+    gyroPigeon = new PigeonIMU(pigeonTalon);
 
-    leftSlave.follow(leftMaster);
+    drive = new DifferentialDrive(leftMaster, rightMaster);
+    drive.setSafetyEnabled(false);
 
-    rightMaster.setInverted(TalonFXInvertType.CounterClockwise);
-    rightSlave.setInverted(TalonFXInvertType.FollowMaster);
+    //Each device configures on its own thread, factory defaults go first so they can't wipe the rest
+    DeviceConfigurator configurator = DeviceConfigurator.getInstance();
+    configureSide(configurator, "Left Drive", leftMaster, leftSlave, leftMasterConfig, TalonFXInvertType.Clockwise);
+    configureSide(configurator, "Right Drive", rightMaster, rightSlave, rightMasterConfig, TalonFXInvertType.CounterClockwise);
+    configurator.submit("Pigeon", device -> {
+      device.check("factory default", gyroPigeon.configFactoryDefault(Constants.kLongCANTimeOutMs));
+    });
 
-    rightMaster.setNeutralMode(NeutralMode.Brake);
-    rightSlave.setNeutralMode(NeutralMode.Brake);
+    drive.setDeadband(0.05);
 
-    leftMaster.setStatusFramePeriod(StatusFrame.Status_1_General, 100);
-    rightMaster.setStatusFramePeriod(StatusFrame.Status_1_General, 100);
-    leftSlave.setStatusFramePeriod(StatusFrame.Status_1_General, 100);
-    rightSlave.setStatusFramePeriod(StatusFrame.Status_1_General, 100);
+    //Odometry samples the masters and Pigeon every 5ms, feedback keeps up in auto
+    CanFrameScheduler frames = CanFrameScheduler.getInstance();
+    for (TalonFX master : new TalonFX[] {leftMaster, rightMaster}) {
+      frames.register("Drive Master " + master.getDeviceID())
+          .frame("General", ms -> master.setStatusFramePeriod(StatusFrame.Status_1_General, ms, 0), 100, 10, 10)
+          .frame("Feedback", ms -> master.setStatusFramePeriod(StatusFrameEnhanced.Status_2_Feedback0, ms, 0), 100, 5, 10);
+    }
+    for (TalonFX slave : new TalonFX[] {leftSlave, rightSlave}) {
+      frames.register("Drive Slave " + slave.getDeviceID())
+          .frame("General", ms -> slave.setStatusFramePeriod(StatusFrame.Status_1_General, ms, 0), 100)
+          .frame("Feedback", ms -> slave.setStatusFramePeriod(StatusFrameEnhanced.Status_2_Feedback0, ms, 0), 255);
+    }
+    frames.register("Pigeon")
+        .frame("Fused Heading", ms -> gyroPigeon.setStatusFramePeriod(PigeonIMU_StatusFrame.CondStatus_6_SensorFusion, ms, 0), 100, 5, 10)
+        .frame("YPR", ms -> gyroPigeon.setStatusFramePeriod(PigeonIMU_StatusFrame.CondStatus_9_SixDeg_YPR, ms, 0), 100, 20, 20);
 
-    rightSlave.follow(rightMaster);
+    readInputs();
+    odometryInputs.update(leftMaster, rightMaster, gyroPigeon, gyroYawOffsetAngleDeg);
+    poseEstimator = new DrivePoseEstimator(Rotation2d.fromDegrees(odometryInputs.fusedHeadingDeg),
+        odometryInputs.leftPositionMeters, odometryInputs.rightPositionMeters, new Pose2d(), Constants.kPoseHistoryCapacity);
 
-    drive = new DifferentialDrive(leftMaster, rightMaster);
-    drive.setSafetyEnabled(false);
+    Telemetry telemetry = Telemetry.getInstance();
+    telemetry.addNumber("Left Distance Inches: ", this::getLeftWheelDistanceInches, Telemetry.Priority.LOW, 5);
+    telemetry.addNumber("Right Distance Inches: ", this::getRightWheelDistanceInches, Telemetry.Priority.LOW, 5);
+    telemetry.addNumber("Left Distance Meters: ", this::getLeftWheelDistanceMeters, Telemetry.Priority.NORMAL, 10);
+    telemetry.addNumber("Right Distance Meters: ", this::getRightWheelDistanceMeters, Telemetry.Priority.NORMAL, 10);
+    telemetry.addNumber("Heading: ", this::getGyroFusedHeadingAngleDeg, Telemetry.Priority.NORMAL, 10);
 
-    gyroPigeon = new PigeonIMU(pigeonTalon);
-    gyroPigeon.configFactoryDefault();
-    leftMaster.configFactoryDefault();
-    rightMaster.configFactoryDefault();
-    leftSlave.configFactoryDefault();
-    rightSlave.configFactoryDefault();
-    
-    drive.setDeadband(0.05);
+    ControlThread.getInstance().register("Drive Odometry", 1, this::updateOdometry);
+    ControlThread.getInstance().register("Drive Output", 1, this::writeOutputs);
 
-    odometry = new DifferentialDriveOdometry(Rotation2d.fromDegrees(getGyroFusedHeadingAngleDeg()), 0, 0);
+    //A path starts from a standstill, not from wherever the last setpoint was
+    controlMode.onEnter(DriveControlMode.PATH_FOLLOWING, () -> pathStarted.set(true));
+    controlMode.onTransition((from, to) -> modeLog.log(to.ordinal()));
   }
 
   public static Drive getInstance() {
     return INSTANCE;
   }
 
-  //Encoder Setup
-  public synchronized DriveControlMode getControlMode() {
-    return driveControlMode;
+  public DriveControlMode getControlMode() {
+    return controlMode.get();
   }
 
-  public synchronized void setControlMode(DriveControlMode controlMode) {
-    this.driveControlMode = controlMode;
+  public void setControlMode(DriveControlMode controlMode) {
+    this.controlMode.set(controlMode);
   }
 
   // Encoder Setup
 
+  /**
+   * Reads every drive sensor once for this loop. Everything below reads from this sample, which
+   * only the main thread touches.
+   */
+  public void readInputs() {
+    inputs.update(leftMaster, rightMaster, gyroPigeon, gyroYawOffsetAngleDeg);
+  }
+
+  //Returns the sample taken at the start of this loop
+  public DriveInputs getInputs() {
+    return inputs;
+  }
+
   //Returns left sensors velocity in ticks per 100ms
   public double getLeftVelocityNativeUnits() {
-    return leftMaster.getSelectedSensorVelocity(0);
+    return inputs.leftVelocityTicksPer100ms;
   }
 
   //Returns right sensors velocity in ticks per 100ms
   public double getRightVelocityNativeUnits() {
-    return leftMaster.getSelectedSensorVelocity(0);
+    return inputs.rightVelocityTicksPer100ms;
   }
 
   //Returns left sensors position in ticks
   public double getLeftSensorPosition(){
-    return leftMaster.getSelectedSensorPosition(0);
+    return inputs.leftPositionTicks;
   }
 
   //Returns right sensors position in ticks
   public double getRightSensorPosition(){
-    return leftMaster.getSelectedSensorPosition(0);
+    return inputs.rightPositionTicks;
   }
 
   //Takes that times the wheel has rotated * by the circumference of the wheel to get its distance traveled in inches
@@ -156,30 +262,24 @@ public class Drive extends SubsystemBase {
     return Units.inchesToMeters(inches);
   }
 
-  //Takes the sensor velocity of an encoder * by 10 to get ticks per second / the encoder PPR to get encoder rotations
-  //per second and then uses the rotations to inches functions to get inches per second
-  private static double ticksPer100msToInchesPerSec(double ticks_100ms) {
-    return rotationsToInches(ticks_100ms * 10.0 / 2048);
-  }
-
-  //Returns left inches per second using the sensor velocity and the ticksToInches conversion method
+  //Returns left inches per second using the sampled velocity
   public double getLeftInchesPerSecond(){
-    return ticksPer100msToInchesPerSec(getLeftVelocityNativeUnits()) / Constants.kEncoderRotationToWheelRotationRatio;
+    return Units.metersToInches(inputs.leftVelocityMetersPerSecond);
   }
 
-  //Returns right inches per second using the sensor velocity and the ticksToInches conversion method
+  //Returns right inches per second using the sampled velocity
   public double getRightInchesPerSecond(){
-    return ticksPer100msToInchesPerSec(getRightVelocityNativeUnits()) / Constants.kEncoderRotationToWheelRotationRatio;
+    return Units.metersToInches(inputs.rightVelocityMetersPerSecond);
   }
 
-  //Returns left meters per second using inchesPerSecond calculation and inchesToMeters method
+  //Returns left meters per second using the precomputed meters per tick scale
   public double getLeftMetersPerSecond(){
-    return inchesToMeters(getLeftInchesPerSecond());
+    return inputs.leftVelocityMetersPerSecond;
   }
 
-  //Returns right meters per second using inchesPerSecond calculation and inchesToMeters method
+  //Returns right meters per second using the precomputed meters per tick scale
   public double getRightMetersPerSecond(){
-    return inchesToMeters(getRightInchesPerSecond());
+    return inputs.rightVelocityMetersPerSecond;
   }
 
   //Sensors positions in ticks / Pulses per Revolution of the Encoder = Encoder Rotations (If ratio is 1:1)
@@ -200,29 +300,30 @@ public class Drive extends SubsystemBase {
     return getRightEncoderRotations() / Constants.kEncoderRotationToWheelRotationRatio;
   }
 
-  //Returns left distance traveled in inches by taking wheel rotations and converting it to inches
+  //Returns left distance traveled in inches using the sampled distance
   public double getLeftWheelDistanceInches() {
-    return rotationsToInches(getLeftWheelRotations());
+    return Units.metersToInches(inputs.leftPositionMeters);
   }
 
-  //Returns right distance traveled in inches by taking wheel rotations and converting it to inches
+  //Returns right distance traveled in inches using the sampled distance
   public double getRightWheelDistanceInches() {
-    return rotationsToInches(getRightWheelRotations());
+    return Units.metersToInches(inputs.rightPositionMeters);
   }
 
-  //Returns left distance traveled in meters using calculated inches distances and inchesToMeters conversion
+  //Returns left distance traveled in meters using the precomputed meters per tick scale
   public double getLeftWheelDistanceMeters() {
-    return inchesToMeters(getLeftWheelDistanceInches());
+    return inputs.leftPositionMeters;
   }
 
-  //Returns right distance traveled in meters using calculated inches distances and inchesToMeters conversion
+  //Returns right distance traveled in meters using the precomputed meters per tick scale
   public double getRightWheelDistanceMeters(){
-    return inchesToMeters(getRightWheelDistanceInches());
+    return inputs.rightPositionMeters;
   }
 
-  public synchronized void resetEncoders() {
+  public void resetEncoders() {
     leftMaster.setSelectedSensorPosition(0);
     rightMaster.setSelectedSensorPosition(0);
+    inputs.zeroEncoders();
   }
 
   // Gyro Set Up
@@ -240,51 +341,115 @@ public class Drive extends SubsystemBase {
     gyroYawOffsetAngleDeg = offsetDeg;
   }
 
-  public synchronized double getGyroYawAngleDeg() {
-    gyroPigeon.getYawPitchRoll(yprPigeon);
-    return yprPigeon[0] + gyroYawOffsetAngleDeg;
+  public double getGyroYawAngleDeg() {
+    return inputs.yawDeg;
   }
 
-  public synchronized double getGyroFusedHeadingAngleDeg() {
-    return (gyroPigeon.getFusedHeading() + gyroYawOffsetAngleDeg) % 360;
+  public double getGyroFusedHeadingAngleDeg() {
+    return inputs.fusedHeadingDeg;
   }
 
-  public synchronized double getGyroPitchAngle() {
-    gyroPigeon.getYawPitchRoll(yprPigeon);
-    return yprPigeon[2];
+  public double getGyroPitchAngle() {
+    return inputs.pitchDeg;
   }
 
-  public synchronized void resetGyroYawAngle() {
+  public void resetGyroYawAngle() {
     gyroPigeon.setYaw(0);
     gyroPigeon.setFusedHeading(0);
+    inputs.zeroHeading(gyroYawOffsetAngleDeg);
   }
 
-  public synchronized void resetGyroYawAngle(double homeAngle) {
+  public void resetGyroYawAngle(double homeAngle) {
     resetGyroYawAngle();
     setGyroYawOffset(homeAngle);
+    inputs.zeroHeading(homeAngle);
   }
 
-  public synchronized void driveWithJoystick() {
+  public void driveWithJoystick() {
     double y = -1 * RobotContainer.getDriver().getLeftY() * Constants.DRIVER_Y;
     double rot = RobotContainer.getDriver().getRightX() * Constants.DRIVER_ROT;
 
-    // Calculated Outputs (Limits Output to 12V)
-    double leftOutput = rot + y ;
-    double rightOutput = y - rot;
-
     // Assigns Each Motor's Power
-    leftMaster.set(ControlMode.PercentOutput, leftOutput);
-    rightMaster.set(ControlMode.PercentOutput, rightOutput);
+    setDemand(ControlMode.PercentOutput, rot + y, y - rot, 0, 0);
+  }
+
+  private static void configureSide(DeviceConfigurator configurator, String name, TalonFX master, TalonFX slave,
+      MotorConfig masterConfig, TalonFXInvertType invert) {
+    TalonFXConfiguration configs = new TalonFXConfiguration();
+    configs.primaryPID.selectedFeedbackSensor = FeedbackDevice.IntegratedSensor;
+
+    configurator.submit(name + " Master", device -> {
+      device.check("factory default", master.configFactoryDefault(Constants.kLongCANTimeOutMs));
+      device.check("all settings", master.configAllSettings(configs, Constants.kLongCANTimeOutMs));
+      master.setInverted(invert);
+      master.setNeutralMode(NeutralMode.Brake);
+
+      //Gains have to go in after the factory defaults
+      masterConfig.invalidate();
+      device.check("kP", masterConfig.config_kP(0, kPVelocityTalon, Constants.kLongCANTimeOutMs));
+      device.check("kI", masterConfig.config_kI(0, 0, Constants.kLongCANTimeOutMs));
+      device.check("kD", masterConfig.config_kD(0, kDVelocityTalon, Constants.kLongCANTimeOutMs));
+      device.check("kF", masterConfig.config_kF(0, 0, Constants.kLongCANTimeOutMs));
+      masterConfig.selectProfileSlot(0, 0);
+    });
+    configurator.submit(name + " Slave", device -> {
+      device.check("factory default", slave.configFactoryDefault(Constants.kLongCANTimeOutMs));
+      device.check("all settings", slave.configAllSettings(configs, Constants.kLongCANTimeOutMs));
+      slave.setInverted(TalonFXInvertType.FollowMaster);
+      slave.setNeutralMode(NeutralMode.Brake);
+      slave.follow(master);
+    });
   }
 
   //Path Following
+  /**
+   * Integrates one odometry step and fuses any new vision reading. Runs on the control thread
+   * every tick in every control mode.
+   */
+  private void updateOdometry() {
+    odometryInputs.update(leftMaster, rightMaster, gyroPigeon, gyroYawOffsetAngleDeg);
+    Rotation2d heading = Rotation2d.fromDegrees(odometryInputs.fusedHeadingDeg);
+
+    Pose2d reset = pendingReset.getAndSet(null);
+    if (reset != null) {
+      poseEstimator.reset(heading, odometryInputs.leftPositionMeters, odometryInputs.rightPositionMeters, reset);
+      //Anything seen before the reset is in the old frame
+      pendingVision.set(null);
+    }
+    poseEstimator.update(odometryInputs.timestampSeconds, heading,
+        odometryInputs.leftPositionMeters, odometryInputs.rightPositionMeters);
+
+    VisionMeasurement vision = pendingVision.getAndSet(null);
+    if (vision != null) {
+      poseEstimator.addVisionMeasurement(vision);
+    }
+    latestPose = poseEstimator.getPose();
+  }
+
   /**
    * Returns the currently-estimated pose of the robot.
    *
    * @return The pose.
    */
   public Pose2d getPose() {
-    return odometry.getPoseMeters();
+    return latestPose;
+  }
+
+  /**
+   * Returns where the robot was at an earlier FPGA timestamp, for latency compensation.
+   *
+   * @param timestampSeconds FPGA time of the reading being compensated.
+   * @return The interpolated pose, or empty if no odometry has run since the last reset.
+   */
+  public Optional<Pose2d> getPoseAt(double timestampSeconds) {
+    return poseEstimator.getPoseAt(timestampSeconds);
+  }
+
+  /**
+   * Queues a Limelight reading to be fused into the pose on the next odometry cycle.
+   */
+  public void addVisionMeasurement(VisionMeasurement measurement) {
+    pendingVision.set(measurement);
   }
 
   /**
@@ -297,14 +462,13 @@ public class Drive extends SubsystemBase {
   }
 
   /**
-   * Resets the odometry to the specified pose.
+   * Resets the odometry to the specified pose. updateOdometry() applies it on its next
+   * cycle against whatever the encoders and gyro read then, so the sensors are left alone.
    *
    * @param pose The pose to which to set the odometry.
    */
   public void resetOdometry(Pose2d pose) {
-    resetEncoders();
-    resetGyroYawAngle(0);
-    odometry.resetPosition(Rotation2d.fromDegrees(getGyroFusedHeadingAngleDeg()), leftMaster.getSelectedSensorPosition(), rightMaster.getSelectedSensorPosition(), pose);
+    pendingReset.set(pose);
   }
 
   /**
@@ -314,34 +478,115 @@ public class Drive extends SubsystemBase {
    * @param rightVolts the commanded right output
    */
   public void tankDriveVolts(double leftVolts, double rightVolts) {
-    leftMaster.setVoltage(leftVolts);
-    rightMaster.setVoltage(rightVolts);
+    double batteryVolts = RobotController.getBatteryVoltage();
+    setDemand(ControlMode.PercentOutput, leftVolts / batteryVolts, rightVolts / batteryVolts, 0, 0);
     drive.feed();
   }
 
-  public void periodic() {
-    synchronized (Drive.this){
-      DriveControlMode currentControlMode = getControlMode();
-      switch (currentControlMode){
-        case JOYSTICK:
-          driveWithJoystick();
-          break;
-        case PATH_FOLLOWING:
-          odometry.update(Rotation2d.fromDegrees(getGyroFusedHeadingAngleDeg()),
-                  getLeftWheelDistanceMeters(),getRightWheelDistanceMeters());
-          break;
-        default:
-          System.out.println("Unknown drive control mode: " + currentControlMode);
-      }
+  /**
+   * Drives each side at a wheel velocity using the TalonFX's onboard 1kHz velocity loop. The
+   * SimpleMotorFeedforward voltage goes along as arbitrary feedforward, acceleration is taken
+   * from the change in setpoint since the last call.
+   *
+   * @param leftMetersPerSecond  the commanded left wheel speed
+   * @param rightMetersPerSecond the commanded right wheel speed
+   */
+  public void setWheelVelocities(double leftMetersPerSecond, double rightMetersPerSecond) {
+    double now = Timer.getFPGATimestamp();
+    if (pathStarted.getAndSet(false)) {
+      lastSetpointTime = 0;
     }
+    double dt = now - lastSetpointTime;
+    double leftAcceleration = 0;
+    double rightAcceleration = 0;
+    //A long gap means a new path, don't treat the jump from the last one as acceleration
+    if (dt > 0 && dt < 0.1) {
+      leftAcceleration = (leftMetersPerSecond - lastLeftSetpoint) / dt;
+      rightAcceleration = (rightMetersPerSecond - lastRightSetpoint) / dt;
+    }
+    lastLeftSetpoint = leftMetersPerSecond;
+    lastRightSetpoint = rightMetersPerSecond;
+    lastSetpointTime = now;
+
+    double batteryVolts = RobotController.getBatteryVoltage();
+    setDemand(ControlMode.Velocity,
+        leftMetersPerSecond / DriveInputs.kMetersPerSecondPerNativeVelocity,
+        rightMetersPerSecond / DriveInputs.kMetersPerSecondPerNativeVelocity,
+        feedforward.calculate(leftMetersPerSecond, leftAcceleration) / batteryVolts,
+        feedforward.calculate(rightMetersPerSecond, rightAcceleration) / batteryVolts);
+    drive.feed();
+  }
 
-    // SmartDashboard.putNumber("Left Distance Inches: ", getLeftWheelDistanceInches());
-    // SmartDashboard.putNumber("Right Distance Inches: ", getRightWheelDistanceInches());
-
-    // SmartDashboard.putNumber("Left Distance Meters: ", getLeftWheelDistanceMeters());
-    // SmartDashboard.putNumber("Right Distance Meters: ", getRightWheelDistanceMeters());
+  /**
+   * Sends the latest demand to the masters. Runs on the control thread every tick.
+   */
+  private void writeOutputs() {
+    if (DriverStation.isDisabled()) {
+      leftOutput.set(ControlMode.PercentOutput, 0, DemandType.ArbitraryFeedForward, 0);
+      rightOutput.set(ControlMode.PercentOutput, 0, DemandType.ArbitraryFeedForward, 0);
+      return;
+    }
+    readDemand();
+    leftOutput.set(sentMode, sentLeft, DemandType.ArbitraryFeedForward, sentLeftFeedforward);
+    rightOutput.set(sentMode, sentRight, DemandType.ArbitraryFeedForward, sentRightFeedforward);
+  }
+
+  //Main thread only
+  private void setDemand(ControlMode mode, double left, double right, double leftFeedforward, double rightFeedforward) {
+    int sequence = demandSequence;
+    demandSequence = sequence + 1;
+    demandMode = mode;
+    demandLeft = left;
+    demandRight = right;
+    demandLeftFeedforward = leftFeedforward;
+    demandRightFeedforward = rightFeedforward;
+    demandSequence = sequence + 2;
+  }
+
+  //Control thread only. Doesn't spin on a write in progress, the main thread may share its core
+  private void readDemand() {
+    int sequence = demandSequence;
+    if ((sequence & 1) != 0) {
+      return;
+    }
+    ControlMode mode = demandMode;
+    double left = demandLeft;
+    double right = demandRight;
+    double leftFeedforward = demandLeftFeedforward;
+    double rightFeedforward = demandRightFeedforward;
+    if (demandSequence != sequence) {
+      return;
+    }
+    sentMode = mode;
+    sentLeft = left;
+    sentRight = right;
+    sentLeftFeedforward = leftFeedforward;
+    sentRightFeedforward = rightFeedforward;
+  }
 
-    // SmartDashboard.putNumber("Heading: ", getGyroFusedHeadingAngleDeg());
+  public void periodic() {
+    periodicProfile.start();
+    //Don't carry an old demand into the next enable
+    if (DriverStation.isDisabled()) {
+      setDemand(ControlMode.PercentOutput, 0, 0, 0, 0);
+    }
+    readInputs();
+    leftMetersLog.log(inputs.leftPositionMeters);
+    rightMetersLog.log(inputs.rightPositionMeters);
+    headingLog.log(inputs.fusedHeadingDeg);
+    poseLog.log(latestPose);
+    DriveControlMode currentControlMode = getControlMode();
+    switch (currentControlMode){
+      case JOYSTICK:
+        driveWithJoystick();
+        break;
+      case PATH_FOLLOWING:
+        //Odometry and outputs run on the control thread
+        break;
+      default:
+        System.out.println("Unknown drive control mode: " + currentControlMode);
+    }
 
+    periodicProfile.stop();
   }
 }
@@ -0,0 +1,85 @@
+package frc.robot.subsystems;
+
+import com.ctre.phoenix.motorcontrol.can.BaseMotorController;
+import com.ctre.phoenix.sensors.PigeonIMU;
+
+import edu.wpi.first.math.util.Units;
+import edu.wpi.first.wpilibj.Timer;
+import frc.robot.Constants;
+
+/**
+ * One sample of every drive sensor. It is filled once at the start of a loop so every getter
+ * and the odometry update see the same reading instead of going back over JNI/CAN each time.
+ */
+public class DriveInputs {
+
+  //Encoder ticks -> wheel meters (ticks / PPR / gear ratio * wheel circumference)
+  public static final double kMetersPerTick =
+      Units.inchesToMeters(Constants.kWheelDiameterInches * Math.PI)
+          / (Constants.kDriveEncoderPPR * Constants.kEncoderRotationToWheelRotationRatio);
+
+  //Talon velocity is reported in ticks per 100ms
+  public static final double kMetersPerSecondPerNativeVelocity = kMetersPerTick * 10.0;
+
+  //FPGA time the sample was taken
+  public double timestampSeconds;
+
+  //Raw Talon readings
+  public double leftPositionTicks;
+  public double rightPositionTicks;
+  public double leftVelocityTicksPer100ms;
+  public double rightVelocityTicksPer100ms;
+
+  //Scaled readings
+  public double leftPositionMeters;
+  public double rightPositionMeters;
+  public double leftVelocityMetersPerSecond;
+  public double rightVelocityMetersPerSecond;
+
+  //Gyro readings, offset already applied to the yaw and fused heading
+  public double yawDeg;
+  public double pitchDeg;
+  public double fusedHeadingDeg;
+
+  private final double[] ypr = new double[3];
+
+  /**
+   * Reads every sensor once and rescales the readings.
+   */
+  public void update(BaseMotorController leftMaster, BaseMotorController rightMaster, PigeonIMU gyro, double yawOffsetDeg) {
+    timestampSeconds = Timer.getFPGATimestamp();
+
+    leftPositionTicks = leftMaster.getSelectedSensorPosition(0);
+    rightPositionTicks = rightMaster.getSelectedSensorPosition(0);
+    leftVelocityTicksPer100ms = leftMaster.getSelectedSensorVelocity(0);
+    rightVelocityTicksPer100ms = rightMaster.getSelectedSensorVelocity(0);
+
+    leftPositionMeters = leftPositionTicks * kMetersPerTick;
+    rightPositionMeters = rightPositionTicks * kMetersPerTick;
+    leftVelocityMetersPerSecond = leftVelocityTicksPer100ms * kMetersPerSecondPerNativeVelocity;
+    rightVelocityMetersPerSecond = rightVelocityTicksPer100ms * kMetersPerSecondPerNativeVelocity;
+
+    gyro.getYawPitchRoll(ypr);
+    yawDeg = ypr[0] + yawOffsetDeg;
+    pitchDeg = ypr[2];
+    fusedHeadingDeg = (gyro.getFusedHeading() + yawOffsetDeg) % 360;
+  }
+
+  /**
+   * Matches the snapshot to freshly zeroed encoders until the next update.
+   */
+  public void zeroEncoders() {
+    leftPositionTicks = 0;
+    rightPositionTicks = 0;
+    leftPositionMeters = 0;
+    rightPositionMeters = 0;
+  }
+
+  /**
+   * Matches the snapshot to a freshly zeroed gyro until the next update.
+   */
+  public void zeroHeading(double yawOffsetDeg) {
+    yawDeg = yawOffsetDeg;
+    fusedHeadingDeg = yawOffsetDeg % 360;
+  }
+}
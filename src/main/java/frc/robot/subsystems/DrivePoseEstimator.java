@@ -0,0 +1,112 @@
+package frc.robot.subsystems;
+
+import java.util.Optional;
+
+import edu.wpi.first.math.VecBuilder;
+import edu.wpi.first.math.estimator.DifferentialDrivePoseEstimator;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import frc.robot.Constants;
+import frc.robot.vision.LimelightPoseSolver;
+import frc.robot.vision.VisionMeasurement;
+
+/**
+ * Wheel/gyro odometry with Limelight corrections fused in at the time the image was captured.
+ * It has no hardware in it so the same fusion can be replayed from a recorded log.
+ *
+ * <p>Not thread safe, the owner (the Drive odometry thread or a replay) calls everything.
+ * Only {@link #getPoseAt(double)} may be called from other threads.
+ */
+public class DrivePoseEstimator {
+
+  private final DifferentialDrivePoseEstimator estimator;
+  private final PoseHistory poseHistory;
+
+  private int visionAccepted = 0;
+  private int visionRejected = 0;
+  //Run of readings past kVisionMaxCorrectionMeters and the correction the last one asked for
+  private int outlierStreak = 0;
+  private Translation2d lastOutlierCorrection = new Translation2d();
+
+  public DrivePoseEstimator(Rotation2d heading, double leftMeters, double rightMeters, Pose2d initialPose, int historyCapacity) {
+    estimator = new DifferentialDrivePoseEstimator(
+        Constants.kDriveKinematics,
+        heading, leftMeters, rightMeters, initialPose,
+        VecBuilder.fill(Constants.kStateStdDevXYMeters, Constants.kStateStdDevXYMeters, Constants.kStateStdDevHeadingRadians),
+        VecBuilder.fill(Constants.kVisionStdDevXYMeters, Constants.kVisionStdDevXYMeters, Constants.kVisionStdDevHeadingRadians));
+    poseHistory = new PoseHistory(historyCapacity);
+  }
+
+  public void reset(Rotation2d heading, double leftMeters, double rightMeters, Pose2d pose) {
+    estimator.resetPosition(heading, leftMeters, rightMeters, pose);
+    poseHistory.clear();
+    outlierStreak = 0;
+  }
+
+  /**
+   * Integrates one wheel/gyro sample and records the fused pose.
+   */
+  public Pose2d update(double timestampSeconds, Rotation2d heading, double leftMeters, double rightMeters) {
+    Pose2d pose = estimator.updateWithTime(timestampSeconds, heading, leftMeters, rightMeters);
+    poseHistory.add(timestampSeconds, pose);
+    return pose;
+  }
+
+  /**
+   * Fuses a Limelight reading back at its capture time. Readings that would move the robot
+   * further than kVisionMaxCorrectionMeters are thrown out as bad targets, unless
+   * kVisionOutlierFramesToAccept of them in a row ask for about the same correction. Then the
+   * odometry is what drifted, and they are fused until it is pulled back in.
+   *
+   * @return Whether the reading was used.
+   */
+  public boolean addVisionMeasurement(VisionMeasurement measurement) {
+    Optional<Pose2d> poseAtCapture = poseHistory.getPose(measurement.captureTimestampSeconds());
+    if (poseAtCapture.isEmpty()) {
+      visionRejected++;
+      return false;
+    }
+
+    Pose2d visionPose = LimelightPoseSolver.solve(poseAtCapture.get(), measurement);
+    if (visionPose == null) {
+      visionRejected++;
+      return false;
+    }
+
+    Translation2d correction = visionPose.getTranslation().minus(poseAtCapture.get().getTranslation());
+    if (correction.getNorm() > Constants.kVisionMaxCorrectionMeters) {
+      boolean agrees = outlierStreak > 0
+          && correction.getDistance(lastOutlierCorrection) < Constants.kVisionOutlierAgreementMeters;
+      outlierStreak = agrees ? outlierStreak + 1 : 1;
+      lastOutlierCorrection = correction;
+      if (outlierStreak < Constants.kVisionOutlierFramesToAccept) {
+        visionRejected++;
+        return false;
+      }
+    }
+    else {
+      outlierStreak = 0;
+    }
+
+    estimator.addVisionMeasurement(visionPose, measurement.captureTimestampSeconds());
+    visionAccepted++;
+    return true;
+  }
+
+  public Pose2d getPose() {
+    return estimator.getEstimatedPosition();
+  }
+
+  public Optional<Pose2d> getPoseAt(double timestampSeconds) {
+    return poseHistory.getPose(timestampSeconds);
+  }
+
+  public int getVisionAccepted() {
+    return visionAccepted;
+  }
+
+  public int getVisionRejected() {
+    return visionRejected;
+  }
+}
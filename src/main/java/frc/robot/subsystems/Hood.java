@@ -8,10 +8,13 @@ import edu.wpi.first.wpilibj.PneumaticsModuleType;
 import edu.wpi.first.wpilibj.Solenoid;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.RobotMap;
+import frc.robot.util.SolenoidOutput;
 
 public class Hood extends SubsystemBase {
   /** Creates a new Hood. */
   public Solenoid hoodPiston = new Solenoid(PneumaticsModuleType.CTREPCM, RobotMap.hoodPiston);
+  //ActuateHood calls actuateHood() every loop, only state changes go to the PCM
+  private final SolenoidOutput hoodOutput = new SolenoidOutput("Hood", hoodPiston);
   
   public boolean isFar;
   
@@ -25,11 +28,11 @@ public class Hood extends SubsystemBase {
     else {
       // 09409rrifhierhi //
     }
-    hoodPiston.set(true);
+    hoodOutput.set(true);
   }
 
   public void actuateHoodManual(boolean actuate) {
-    hoodPiston.set(actuate);
+    hoodOutput.set(actuate);
   }
 
   @Override
@@ -13,9 +13,15 @@ import com.ctre.phoenix.motorcontrol.StatusFrame;
 import com.ctre.phoenix.motorcontrol.can.TalonSRX;
 
 import edu.wpi.first.wpilibj.DigitalInput;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.Constants;
 import frc.robot.RobotMap;
+import frc.robot.util.AsyncLogger;
+import frc.robot.util.CanFrameScheduler;
+import frc.robot.util.ControlModeState;
+import frc.robot.util.MotorOutput;
+import frc.robot.util.RateScheduler;
+import frc.robot.util.Telemetry;
 
 /**
  * The Intake delivers "Power Cells" to this subsystem to be transfered to the
@@ -26,6 +32,10 @@ public class Hopper extends SubsystemBase {
   public TalonSRX kickerWheel = new TalonSRX(RobotMap.kickerWheelAndAgitator);
   public TalonSRX backFeederBelt = new TalonSRX(RobotMap.backFeederBelt);
 
+  //updateHopper() sets the same speeds every cycle, only changes go out on the bus
+  private final MotorOutput kickerOutput = new MotorOutput("Kicker Wheel", kickerWheel);
+  private final MotorOutput backBeltOutput = new MotorOutput("Back Feeder Belt", backFeederBelt);
+
   public DigitalInput topBeam = new DigitalInput(RobotMap.topBeam);
   public DigitalInput lowBeam = new DigitalInput(RobotMap.lowBeam);
 
@@ -35,8 +45,18 @@ public class Hopper extends SubsystemBase {
     backFeederBelt.setNeutralMode(NeutralMode.Brake);
     kickerWheel.setNeutralMode(NeutralMode.Brake);
 
-    kickerWheel.setStatusFramePeriod(StatusFrame.Status_1_General, 255);
-    backFeederBelt.setStatusFramePeriod(StatusFrame.Status_1_General, 255);
+    CanFrameScheduler.getInstance().register("Kicker Wheel")
+        .frame("General", ms -> kickerWheel.setStatusFramePeriod(StatusFrame.Status_1_General, ms, 0), 255);
+    CanFrameScheduler.getInstance().register("Back Feeder Belt")
+        .frame("General", ms -> backFeederBelt.setStatusFramePeriod(StatusFrame.Status_1_General, ms, 0), 255);
+
+    //Beam breaks are checked at 100Hz so a cell stops where it should
+    RateScheduler.getInstance().register("Hopper Beams", Constants.kHopperPeriodSeconds, this::updateHopper);
+
+    Telemetry.getInstance().addBoolean("Top Beam", this::getTopBeam, Telemetry.Priority.HIGH, 10);
+    Telemetry.getInstance().addBoolean("Low Beam", this::getLowBeam, Telemetry.Priority.HIGH, 10);
+
+    controlMode.onTransition((from, to) -> modeLog.log(to.ordinal()));
   }
 
   public enum HopperControlMode {
@@ -46,14 +66,15 @@ public class Hopper extends SubsystemBase {
     UNJAMMING
   }
 
-  public HopperControlMode hopperControlMode = HopperControlMode.IDLE;
+  private final ControlModeState<HopperControlMode> controlMode = new ControlModeState<>(HopperControlMode.IDLE);
+  private final AsyncLogger.DoubleChannel modeLog = AsyncLogger.getInstance().doubleChannel("Hopper/Mode");
 
-  public synchronized HopperControlMode getControlMode() {
-    return hopperControlMode;
-}
+  public HopperControlMode getControlMode() {
+    return controlMode.get();
+  }
 
-  public synchronized void setControlMode(HopperControlMode controlMode) {
-    this.hopperControlMode = controlMode;
+  public void setControlMode(HopperControlMode controlMode) {
+    this.controlMode.set(controlMode);
   }
 
   public boolean getTopBeam() {
@@ -65,54 +86,57 @@ public class Hopper extends SubsystemBase {
   }
 
   public void setBackBeltSpeed(double percentOutput) {
-    backFeederBelt.set(ControlMode.PercentOutput, percentOutput);
+    backBeltOutput.set(ControlMode.PercentOutput, percentOutput);
   }
 
   public void setKickerSpeed(double percentOutput) {
-    kickerWheel.set(ControlMode.PercentOutput, percentOutput);
+    kickerOutput.set(ControlMode.PercentOutput, percentOutput);
   }
 
   public void setHopperSpeed(double kickerSpeed, double backBeltSpeed, double frontBeltWheelSpeed) {
-    kickerWheel.set(ControlMode.PercentOutput, kickerSpeed);
-    backFeederBelt.set(ControlMode.PercentOutput, backBeltSpeed);
+    kickerOutput.set(ControlMode.PercentOutput, kickerSpeed);
+    backBeltOutput.set(ControlMode.PercentOutput, backBeltSpeed);
   }
 
   public void stopSystems() {
-    kickerWheel.set(ControlMode.PercentOutput, 0);
-    backFeederBelt.set(ControlMode.PercentOutput, 0);
+    kickerOutput.set(ControlMode.PercentOutput, 0);
+    backBeltOutput.set(ControlMode.PercentOutput, 0);
+  }
+
+  /**
+   * Runs the belts for the current mode and beam break state.
+   */
+  public void updateHopper() {
+    switch (getControlMode()) {
+      case IDLE:
+        stopSystems();
+        break;
+      case INTAKING:
+        if (!getTopBeam() && !getLowBeam()) {
+          setHopperSpeed(.55, .6, .6);
+        }
+        else if (getTopBeam() && !getLowBeam()) {
+          setKickerSpeed(.55);
+          setBackBeltSpeed(0);
+        }
+        else if (getTopBeam() && getLowBeam()){
+          setHopperSpeed(0, 0, 0);
+        }
+        else if (!getTopBeam() && getLowBeam()) {
+          setHopperSpeed(.55, .6, .6);
+        }
+        break;
+      case FEEDING:
+          setHopperSpeed(.7, .4, .35);
+        break;
+      case UNJAMMING:
+        setHopperSpeed(-.4, -.75, -.75);
+        break;
+    }
   }
 
   @Override
   public void periodic() {
-    SmartDashboard.putBoolean("Top Beam", getTopBeam());
-    SmartDashboard.putBoolean("Low Beam", getLowBeam());
-    synchronized (Hopper.this) {
-      switch (getControlMode()) {
-        case IDLE:
-          stopSystems();
-          break;
-        case INTAKING:
-          if (!getTopBeam() && !getLowBeam()) {
-            setHopperSpeed(.55, .6, .6);
-          }
-          else if (getTopBeam() && !getLowBeam()) {
-            setKickerSpeed(.55);
-            setBackBeltSpeed(0);
-          }
-          else if (getTopBeam() && getLowBeam()){
-            setHopperSpeed(0, 0, 0);
-          }
-          else if (!getTopBeam() && getLowBeam()) {
-            setHopperSpeed(.55, .6, .6);
-          }
-          break;
-        case FEEDING:
-            setHopperSpeed(.7, .4, .35);
-          break;
-        case UNJAMMING:
-          setHopperSpeed(-.4, -.75, -.75);
-          break;
-      }
-    }
+    // Belts are run from updateHopper() at 100Hz
   }
 }
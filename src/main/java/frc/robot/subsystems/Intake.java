@@ -16,6 +16,9 @@ import edu.wpi.first.wpilibj.PneumaticsModuleType;
 import edu.wpi.first.wpilibj.Solenoid;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.RobotMap;
+import frc.robot.util.CanFrameScheduler;
+import frc.robot.util.MotorOutput;
+import frc.robot.util.SolenoidOutput;
 
 /**
  * The Intake Class controls the front facing device used to collect "Power Cells"
@@ -27,18 +30,22 @@ public class Intake extends SubsystemBase {
   
   public Solenoid intakeTilt = new Solenoid(PneumaticsModuleType.CTREPCM, RobotMap.intakeTilt);
 
+  private final MotorOutput intakeOutput = new MotorOutput("Intake", intake);
+  private final SolenoidOutput intakeTiltOutput = new SolenoidOutput("Intake Tilt", intakeTilt);
+
   public Intake() {
     intake.setNeutralMode(NeutralMode.Coast);
 
-    intake.setStatusFramePeriod(StatusFrame.Status_1_General, 255);
+    CanFrameScheduler.getInstance().register("Intake")
+        .frame("General", ms -> intake.setStatusFramePeriod(StatusFrame.Status_1_General, ms, 0), 255);
   }
 
   public void acuateIntake(boolean lowerIntake){
-    intakeTilt.set(lowerIntake);
+    intakeTiltOutput.set(lowerIntake);
   }
 
   public void setIntakeSpeed(double percentOutput) {
-    intake.set(ControlMode.PercentOutput, percentOutput);
+    intakeOutput.set(ControlMode.PercentOutput, percentOutput);
   }
 
   @Override
@@ -0,0 +1,124 @@
+package frc.robot.subsystems;
+
+import java.lang.invoke.VarHandle;
+import java.util.Optional;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+
+/**
+ * Fixed size history of robot poses indexed by FPGA timestamp, used to find where the robot was
+ * when an old sensor reading (like a Limelight frame) was taken.
+ *
+ * <p>One thread writes (the odometry thread) and any thread may read. Writes never allocate and
+ * never block; readers retry if a write happened while they were looking.
+ */
+public class PoseHistory {
+
+  private final int capacity;
+  private final double[] timestamps;
+  private final double[] xs;
+  private final double[] ys;
+  private final double[] headings;
+
+  //Writer owned, readers only trust them between two matching sequence reads
+  private int head;
+  private int size;
+
+  //Odd while a write is in progress
+  private volatile int sequence;
+
+  public PoseHistory(int capacity) {
+    this.capacity = capacity;
+    timestamps = new double[capacity];
+    xs = new double[capacity];
+    ys = new double[capacity];
+    headings = new double[capacity];
+  }
+
+  /**
+   * Records a pose. Timestamps have to be added in increasing order.
+   */
+  public void add(double timestampSeconds, double xMeters, double yMeters, double headingRadians) {
+    int seq = sequence;
+    sequence = seq + 1;
+    VarHandle.storeStoreFence();
+
+    timestamps[head] = timestampSeconds;
+    xs[head] = xMeters;
+    ys[head] = yMeters;
+    headings[head] = headingRadians;
+    head = (head + 1) % capacity;
+    if (size < capacity) {
+      size++;
+    }
+
+    sequence = seq + 2;
+  }
+
+  public void add(double timestampSeconds, Pose2d pose) {
+    add(timestampSeconds, pose.getX(), pose.getY(), pose.getRotation().getRadians());
+  }
+
+  /**
+   * Forgets every pose, used when the odometry is reset to a new frame.
+   */
+  public void clear() {
+    int seq = sequence;
+    sequence = seq + 1;
+    VarHandle.storeStoreFence();
+    size = 0;
+    sequence = seq + 2;
+  }
+
+  /**
+   * Returns the pose at the given timestamp, interpolated between the two closest samples.
+   * Timestamps outside the history are clamped to the oldest or newest sample.
+   */
+  public Optional<Pose2d> getPose(double timestampSeconds) {
+    while (true) {
+      int seq = sequence;
+      if ((seq & 1) != 0) {
+        Thread.onSpinWait();
+        continue;
+      }
+
+      int count = size;
+      int oldest = Math.floorMod(head - count, capacity);
+      double x = 0;
+      double y = 0;
+      double heading = 0;
+
+      if (count > 0) {
+        //Binary search for the first sample newer than the timestamp
+        int low = 0;
+        int high = count;
+        while (low < high) {
+          int mid = (low + high) >>> 1;
+          if (timestamps[(oldest + mid) % capacity] <= timestampSeconds) {
+            low = mid + 1;
+          }
+          else {
+            high = mid;
+          }
+        }
+
+        int after = (oldest + Math.min(low, count - 1)) % capacity;
+        int before = (oldest + Math.max(low - 1, 0)) % capacity;
+        double span = timestamps[after] - timestamps[before];
+        double t = span > 0 ? MathUtil.clamp((timestampSeconds - timestamps[before]) / span, 0, 1) : 0;
+
+        x = xs[before] + (xs[after] - xs[before]) * t;
+        y = ys[before] + (ys[after] - ys[before]) * t;
+        heading = headings[before] + MathUtil.angleModulus(headings[after] - headings[before]) * t;
+      }
+
+      VarHandle.loadLoadFence();
+      if (seq == sequence) {
+        return count > 0 ? Optional.of(new Pose2d(x, y, new Rotation2d(heading)))
+            : Optional.empty();
+      }
+    }
+  }
+}
@@ -19,6 +19,7 @@ import com.ctre.phoenix.motorcontrol.ControlMode;
 import com.ctre.phoenix.motorcontrol.FeedbackDevice;
 import com.ctre.phoenix.motorcontrol.NeutralMode;
 import com.ctre.phoenix.motorcontrol.StatusFrame;
+import com.ctre.phoenix.motorcontrol.StatusFrameEnhanced;
 import com.ctre.phoenix.motorcontrol.can.TalonFX;
 import com.ctre.phoenix.motorcontrol.can.VictorSPX;
 
@@ -26,6 +27,12 @@ import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.Constants;
 import frc.robot.RobotMap;
+import frc.robot.util.AsyncLogger;
+import frc.robot.util.CanFrameScheduler;
+import frc.robot.util.ControlThread;
+import frc.robot.util.DeviceConfigurator;
+import frc.robot.util.MotorConfig;
+import frc.robot.util.MotorOutput;
 
 /**
  * The Shooter launches "Power Cells" from the robot to the "Power Port"
@@ -35,39 +42,65 @@ public class Shooter extends SubsystemBase {
     public TalonFX shooterA = new TalonFX(RobotMap.shooterB);
     // public TalonFX shooterB = new TalonFX(RobotMap.shooterB);
     public VictorSPX topWheel = new VictorSPX(RobotMap.topWheel);
+    private final MotorConfig shooterConfig = new MotorConfig("Shooter", shooterA);
+    //Only the control thread writes to the flywheel, setters hand it a demand
+    private final MotorOutput shooterOutput = new MotorOutput("Shooter", shooterA);
+    private record Demand(ControlMode mode, double value) {
+    }
+    private volatile Demand demand = new Demand(ControlMode.PercentOutput, 0);
+    private final MotorOutput topWheelOutput = new MotorOutput("Top Wheel", topWheel);
 
     public boolean isFar = false;
 
-    public Shooter() {
-        shooterA.configFactoryDefault();
-        // shooterB.configFactoryDefault();
-        shooterA.configSelectedFeedbackSensor(FeedbackDevice.IntegratedSensor);
+    private final AsyncLogger.DoubleChannel rpmLog = AsyncLogger.getInstance().doubleChannel("Shooter/RPM");
 
-        shooterA.setInverted(false);
-        shooterA.setSensorPhase(true);
+    //Velocity feedback only needs to be fast while the wheel is spinning
+    private final CanFrameScheduler.Device shooterFrames;
 
+    public Shooter() {
+        //Blocking config runs with the other devices, robotInit() waits for it
+        DeviceConfigurator.getInstance().submit("Shooter", device -> {
+            device.check("factory default", shooterA.configFactoryDefault(Constants.kLongCANTimeOutMs));
+            device.check("feedback sensor",
+                shooterA.configSelectedFeedbackSensor(FeedbackDevice.IntegratedSensor, 0, Constants.kLongCANTimeOutMs));
+
+            shooterA.setInverted(false);
+            shooterA.setSensorPhase(true);
+            shooterA.setNeutralMode(NeutralMode.Coast);
+
+            shooterConfig.invalidate();
+            device.check("kP", shooterConfig.config_kP(0, kP_SHOOTER, Constants.kLongCANTimeOutMs));
+            device.check("kI", shooterConfig.config_kI(0, kI_SHOOTER, Constants.kLongCANTimeOutMs));
+            device.check("kD", shooterConfig.config_kD(0, kD_SHOOTER, Constants.kLongCANTimeOutMs));
+            device.check("kF", shooterConfig.config_kF(0, kF_SHOOTER, Constants.kLongCANTimeOutMs));
+            device.check("iZone", shooterConfig.config_IntegralZone(0, kIZone_SHOOTER, Constants.kLongCANTimeOutMs));
+
+            device.check("sticky faults", shooterA.clearStickyFaults(Constants.kLongCANTimeOutMs));
+        });
+        // shooterB.configFactoryDefault();
         // shooterB.setInverted(false);
         // shooterB.setSensorPhase(true);
-
-        shooterA.setNeutralMode(NeutralMode.Coast);
         // shooterB.setNeutralMode(NeutralMode.Coast);
+        // shooterB.clearStickyFaults();
         topWheel.setNeutralMode(NeutralMode.Coast);
 
-        shooterA.config_kP(0, kP_SHOOTER);
-        shooterA.config_kI(0, kI_SHOOTER);
-        shooterA.config_kD(0, kD_SHOOTER);
-        shooterA.config_kF(0, kF_SHOOTER);
-        shooterA.config_IntegralZone(0, kIZone_SHOOTER);
+        shooterFrames = CanFrameScheduler.getInstance().register("Shooter")
+            .frame("General", ms -> shooterA.setStatusFramePeriod(StatusFrame.Status_1_General, ms, 0), 100, 20, 20)
+            .frame("Feedback", ms -> shooterA.setStatusFramePeriod(StatusFrameEnhanced.Status_2_Feedback0, ms, 0), 255, 100, 100)
+            .boosted(10);
+        CanFrameScheduler.getInstance().register("Top Wheel")
+            .frame("General", ms -> topWheel.setStatusFramePeriod(StatusFrame.Status_1_General, ms, 0), 255);
 
-        shooterA.clearStickyFaults();
-        // shooterB.clearStickyFaults();
+        //Every other control tick (100Hz), matches the boosted feedback frame
+        ControlThread.getInstance().register("Shooter Velocity", 2, this::updateVelocity);
 
         
        
     }
     
     public void setShooterSpeed(double speed) {
-        shooterA.set(ControlMode.PercentOutput, speed);
+        shooterFrames.setBoosted(speed != 0);
+        demand = new Demand(ControlMode.PercentOutput, speed);
     }
 
     public double calculateDesiredOutput(double x) {
@@ -92,11 +125,12 @@ public class Shooter extends SubsystemBase {
     }
 
     public void setShooterRPM(double rpm) {
-        shooterA.set(ControlMode.Velocity, shooterRPMToNativeUnits(rpm));
+        shooterFrames.setBoosted(rpm != 0);
+        demand = new Demand(ControlMode.Velocity, shooterRPMToNativeUnits(rpm));
     }
 
     public void setTopWheel(double speed) {
-        topWheel.set(ControlMode.PercentOutput, speed);
+        topWheelOutput.set(ControlMode.PercentOutput, speed);
     }
 
     public double calculateDesiredHoodPosition(double x) {
@@ -143,6 +177,15 @@ public class Shooter extends SubsystemBase {
         return isFar;
     }
 
+    /**
+     * Sends the latest demand and samples the flywheel speed. Runs on the control thread at 100Hz.
+     */
+    private void updateVelocity() {
+        Demand current = demand;
+        shooterOutput.set(current.mode(), current.value());
+        rpmLog.log(getShooterRPM());
+    }
+
     @Override
     public void periodic() {
         // if (getShooterRPM() >= 5100) {
@@ -151,6 +194,5 @@ public class Shooter extends SubsystemBase {
         // else {
         //     isFar = false;
         // }
-        System.out.println(getShooterRPM());
     }
 }
\ No newline at end of file
@@ -12,15 +12,23 @@ import static frc.robot.Constants.kP_TURRET;
 
 import com.ctre.phoenix.motorcontrol.ControlMode;
 import com.ctre.phoenix.motorcontrol.StatusFrame;
+import com.ctre.phoenix.motorcontrol.StatusFrameEnhanced;
 import com.ctre.phoenix.motorcontrol.can.TalonSRX;
 
-import edu.wpi.first.networktables.NetworkTableInstance;
 import edu.wpi.first.wpilibj.DigitalInput;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.Constants;
 import frc.robot.Robot;
 import frc.robot.RobotContainer;
 import frc.robot.RobotMap;
+import frc.robot.util.AsyncLogger;
+import frc.robot.util.CanFrameScheduler;
+import frc.robot.util.ControlModeState;
+import frc.robot.util.LoopProfiler;
+import frc.robot.util.DeviceConfigurator;
+import frc.robot.util.MotorConfig;
+import frc.robot.util.MotorOutput;
+import frc.robot.vision.Limelight;
 
 /**
  * This device is responisble for the rotational control of the "Shooter" and the tracking of the 
@@ -29,20 +37,32 @@ import frc.robot.RobotMap;
 public class Turret extends SubsystemBase {
   
   public TalonSRX turret = new TalonSRX(RobotMap.turret);
+  //Config calls go through here so the ones in periodic() don't hit the CAN bus every loop
+  private final MotorConfig turretConfig = new MotorConfig("Turret", turret);
+  //Same for set(), the aiming loop mostly repeats its last output
+  private final MotorOutput turretOutput = new MotorOutput("Turret", turret);
+  private final LoopProfiler.Section periodicProfile = LoopProfiler.getInstance().section("Turret.periodic()");
   
   public DigitalInput turretSwitch = new DigitalInput(RobotMap.turretSwitch);
 
   public static double startPos = -90;
   
   public Turret() {
-    turret.setSelectedSensorPosition(0);
-    turret.configSelectedFeedbackCoefficient(TURRET_PPR_TO_DEGREES); //Convert to Degrees of Revolution
-    turret.setSensorPhase(true);
+    DeviceConfigurator.getInstance().submit("Turret", device -> {
+      device.check("sensor position", turret.setSelectedSensorPosition(0, 0, Constants.kLongCANTimeOutMs));
+      device.check("feedback coefficient",
+          turretConfig.configSelectedFeedbackCoefficient(TURRET_PPR_TO_DEGREES, Constants.kLongCANTimeOutMs)); //Convert to Degrees of Revolution
+      turret.setSensorPhase(true);
+      device.check("kP", turretConfig.config_kP(0, 0.06, Constants.kLongCANTimeOutMs));
+      device.check("kD", turretConfig.config_kD(0, 0.19, Constants.kLongCANTimeOutMs));
+      turretConfig.selectProfileSlot(0, 0);
+    });
     setLed(false);
-    turret.config_kP(0, 0.06);
-    turret.config_kD(0, 0.19);
-    turret.selectProfileSlot(0, 0);
-    turret.setStatusFramePeriod(StatusFrame.Status_1_General, 255);
+    CanFrameScheduler.getInstance().register("Turret")
+        .frame("General", ms -> turret.setStatusFramePeriod(StatusFrame.Status_1_General, ms, 0), 255)
+        .frame("Feedback", ms -> turret.setStatusFramePeriod(StatusFrameEnhanced.Status_2_Feedback0, ms, 0), 100, 20, 20);
+
+    controlMode.onTransition((from, to) -> modeLog.log(to.ordinal()));
   }
 
   public enum TurretControlMode {
@@ -51,22 +71,23 @@ public class Turret extends SubsystemBase {
     CLIMB
   }
 
-  public TurretControlMode turretControlMode = TurretControlMode.DRIVER;
+  private final ControlModeState<TurretControlMode> controlMode = new ControlModeState<>(TurretControlMode.DRIVER);
+  private final AsyncLogger.DoubleChannel modeLog = AsyncLogger.getInstance().doubleChannel("Turret/Mode");
 
-  public synchronized TurretControlMode getControlMode() {
-    return turretControlMode;
+  public TurretControlMode getControlMode() {
+    return controlMode.get();
   }
 
-  public synchronized void setControlMode(TurretControlMode controlMode) {
-    this.turretControlMode = controlMode;
+  public void setControlMode(TurretControlMode controlMode) {
+    this.controlMode.set(controlMode);
   }
 
   public void setLed(boolean isOn) {
     if (isOn) {
-      NetworkTableInstance.getDefault().getTable("limelight").getEntry("ledMode").setNumber(3); //Force LED on
+      Limelight.getInstance().setLedMode(Limelight.kLedOn); //Force LED on
     }
     else {
-      NetworkTableInstance.getDefault().getTable("limelight").getEntry("ledMode").setNumber(1); //Force LED off
+      Limelight.getInstance().setLedMode(Limelight.kLedOff); //Force LED off
     }
   }
 
@@ -76,13 +97,13 @@ public class Turret extends SubsystemBase {
     double errorX = (getTurretPosition()) * kP_TURRET;
 
     if (getTurretSwitch() && getTurretPosition() > 245) {
-      turret.set(ControlMode.PercentOutput, -.1);
+      turretOutput.set(ControlMode.PercentOutput, -.1);
     }
     else if (getTurretSwitch() && getTurretPosition() < -110) {
-      turret.set(ControlMode.PercentOutput, .1);
+      turretOutput.set(ControlMode.PercentOutput, .1);
     }
     else {
-      turret.set(ControlMode.PercentOutput, errorX);
+      turretOutput.set(ControlMode.PercentOutput, errorX);
     }
   }
 
@@ -92,8 +113,9 @@ public class Turret extends SubsystemBase {
 
 
   public void setDriverCamMode() {
-    NetworkTableInstance.getDefault().getTable("limelight").getEntry("ledMode").setNumber(1); //Turns LED off
-    NetworkTableInstance.getDefault().getTable("limelight").getEntry("camMode").setNumber(1); //Disable Vision Processing and Doubles Exposure
+    //Only sent when the mode changes
+    Limelight.getInstance().setLedMode(Limelight.kLedOff); //Turns LED off
+    Limelight.getInstance().setCamMode(Limelight.kCamDriver); //Disable Vision Processing and Doubles Exposure
   }
 
   public double convertAngle(double angle) {
@@ -110,34 +132,34 @@ public class Turret extends SubsystemBase {
   }
 
   public void setTurretPosition(double degrees) {
-    turret.config_kP(0, 0.0001);
+    turretConfig.config_kP(0, 0.0001);
     double modDegrees = degrees % 360;
-    turret.set(ControlMode.Position, modDegrees);
+    turretOutput.set(ControlMode.Position, modDegrees);
   }
 
 
   public void manualControl() {
     if (getTurretSwitch() && getTurretPosition() > 245) {
-      turret.set(ControlMode.PercentOutput, -.1);
+      turretOutput.set(ControlMode.PercentOutput, -.1);
     }
     else if (getTurretSwitch() && getTurretPosition() < -110) {
-      turret.set(ControlMode.PercentOutput, .1);
+      turretOutput.set(ControlMode.PercentOutput, .1);
     }
     else {
-      turret.set(ControlMode.PercentOutput, RobotContainer.getOperator().getLeftX() * Constants.TURRET_ROT);
+      turretOutput.set(ControlMode.PercentOutput, RobotContainer.getOperator().getLeftX() * Constants.TURRET_ROT);
     }
   }
   
   public void turretReverse() {
     double errorX = (getTurretPosition() - 180) * kP_TURRET;
     if (getTurretSwitch() && getTurretPosition() > 245) {
-      turret.set(ControlMode.PercentOutput, -.1);
+      turretOutput.set(ControlMode.PercentOutput, -.1);
     }
     else if (getTurretSwitch() && getTurretPosition() < -110) {
-      turret.set(ControlMode.PercentOutput, .1);
+      turretOutput.set(ControlMode.PercentOutput, .1);
     }
     else {
-      turret.set(ControlMode.PercentOutput, errorX);
+      turretOutput.set(ControlMode.PercentOutput, errorX);
     }
   }
 
@@ -151,27 +173,27 @@ public class Turret extends SubsystemBase {
 
   @Override
   public void periodic() {
-    synchronized (Turret.this) {
-      switch (getControlMode()) {
-        case DRIVER:
-          setDriverCamMode();
-          resetPose();
-          setTurretPosition(0);
-          break;
-        case JOYSTICK:
-          // manualControl();
-          setTurretPosition(0);
-          break;
-        case CLIMB:
-          // turretReverse();
-          setTurretPosition(0);
-          break;
-        default:
-        // setDriverCamMode();
-        // resetPose();
+    periodicProfile.start();
+    switch (getControlMode()) {
+      case DRIVER:
+        setDriverCamMode();
+        resetPose();
+        setTurretPosition(0);
+        break;
+      case JOYSTICK:
+        // manualControl();
+        setTurretPosition(0);
+        break;
+      case CLIMB:
+        // turretReverse();
         setTurretPosition(0);
         break;
-      }
+      default:
+      // setDriverCamMode();
+      // resetPose();
+      setTurretPosition(0);
+      break;
     }
+    periodicProfile.stop();
   }
 }
@@ -0,0 +1,49 @@
+package frc.robot.tools;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+import edu.wpi.first.math.trajectory.Trajectory;
+import edu.wpi.first.wpilibj.TimedRobot;
+import frc.robot.auto.TrajectoryGenerator;
+
+/**
+ * Compares how long every chained path on {@link TrajectoryGenerator} takes against following its
+ * segments one by one. Followed separately, each segment ends on the first loop after its time is
+ * up and the StopTrajectory between segments costs another loop before the next one starts.
+ *
+ * <p>Run with {@code ./gradlew reportPathChains}. In simulation, the "Auto/Duration s" log entry
+ * gives the measured time of the whole routine to compare with.
+ */
+public final class PathChainReport {
+
+  private static final double kLoopSeconds = TimedRobot.kDefaultPeriod;
+
+  private PathChainReport() {
+  }
+
+  public static void main(String... args) throws ReflectiveOperationException {
+    TrajectoryGenerator generator = TrajectoryGenerator.getInstance();
+    System.out.printf("%-24s %8s %10s %10s %8s%n", "Chain", "Segments", "Separate s", "Chained s", "Saved s");
+    for (Method getter : TrajectoryExporter.getters()) {
+      String name = getter.getName().substring(3);
+      Trajectory chained = (Trajectory) getter.invoke(generator);
+      List<Trajectory> segments = generator.getChainSegments(name);
+      if (segments == null) {
+        continue;
+      }
+
+      double separate = (segments.size() - 1) * kLoopSeconds;
+      for (Trajectory segment : segments) {
+        separate += followed(segment);
+      }
+      double together = followed(chained);
+      System.out.printf("%-24s %8d %10.2f %10.2f %8.2f%n", name, segments.size(), separate, together, separate - together);
+    }
+  }
+
+  //Time until a follower started on a loop boundary notices the path is done
+  private static double followed(Trajectory trajectory) {
+    return Math.ceil(trajectory.getTotalTimeSeconds() / kLoopSeconds) * kLoopSeconds;
+  }
+}
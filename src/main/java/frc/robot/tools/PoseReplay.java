@@ -0,0 +1,127 @@
+package frc.robot.tools;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import frc.robot.subsystems.DrivePoseEstimator;
+import frc.robot.vision.VisionMeasurement;
+
+/**
+ * Replays a recorded drive/vision log through {@link DrivePoseEstimator} twice, once with the
+ * Limelight fused in and once with wheel odometry only, and scores both against a hand-built
+ * baseline of where the robot really was.
+ *
+ * <p>Run with {@code ./gradlew replayPoseEstimator -PreplayArgs="drive.csv baseline.csv"}.
+ *
+ * <p>drive.csv needs a header with these columns (extra columns are ignored):
+ * {@code timestamp,left_m,right_m,heading_deg,tv,tx,ty,latency_s,turret_deg}
+ *
+ * <p>baseline.csv needs {@code timestamp,x_m,y_m}, one row per known robot position.
+ */
+public final class PoseReplay {
+
+  private PoseReplay() {
+  }
+
+  public static void main(String... args) throws IOException {
+    if (args.length < 2) {
+      System.err.println("Usage: PoseReplay <drive.csv> <baseline.csv>");
+      System.exit(1);
+    }
+
+    List<double[]> drive = readCsv(Path.of(args[0]),
+        "timestamp", "left_m", "right_m", "heading_deg", "tv", "tx", "ty", "latency_s", "turret_deg");
+    List<double[]> baseline = readCsv(Path.of(args[1]), "timestamp", "x_m", "y_m");
+    if (drive.isEmpty()) {
+      System.err.println("No drive samples in " + args[0]);
+      System.exit(1);
+    }
+
+    double[] first = drive.get(0);
+    DrivePoseEstimator fused = new DrivePoseEstimator(
+        Rotation2d.fromDegrees(first[3]), first[1], first[2], new Pose2d(), drive.size());
+    DrivePoseEstimator odometryOnly = new DrivePoseEstimator(
+        Rotation2d.fromDegrees(first[3]), first[1], first[2], new Pose2d(), drive.size());
+
+    double lastTx = Double.NaN;
+    double lastTy = Double.NaN;
+    for (double[] row : drive) {
+      Rotation2d heading = Rotation2d.fromDegrees(row[3]);
+      fused.update(row[0], heading, row[1], row[2]);
+      odometryOnly.update(row[0], heading, row[1], row[2]);
+
+      //The log is sampled faster than the camera, only fuse a frame once
+      boolean newFrame = row[5] != lastTx || row[6] != lastTy;
+      if (row[4] == 1 && newFrame) {
+        fused.addVisionMeasurement(new VisionMeasurement(row[0] - row[7], row[5], row[6], row[8]));
+      }
+      lastTx = row[5];
+      lastTy = row[6];
+    }
+
+    System.out.printf("Samples: %d drive, %d baseline%n", drive.size(), baseline.size());
+    System.out.printf("Vision frames: %d fused, %d rejected%n", fused.getVisionAccepted(), fused.getVisionRejected());
+    report("Odometry only", odometryOnly, baseline);
+    report("Vision fused ", fused, baseline);
+  }
+
+  private static void report(String name, DrivePoseEstimator estimator, List<double[]> baseline) {
+    double sumSquared = 0;
+    double max = 0;
+    int count = 0;
+    for (double[] row : baseline) {
+      Optional<Pose2d> pose = estimator.getPoseAt(row[0]);
+      if (pose.isEmpty()) {
+        continue;
+      }
+      double error = pose.get().getTranslation().getDistance(new Translation2d(row[1], row[2]));
+      sumSquared += error * error;
+      max = Math.max(max, error);
+      count++;
+    }
+    double rms = count > 0 ? Math.sqrt(sumSquared / count) : Double.NaN;
+    System.out.printf("%s: RMS error %.3f m, max error %.3f m over %d points%n", name, rms, max, count);
+  }
+
+  /**
+   * Reads the named columns out of a CSV with a header row.
+   */
+  private static List<double[]> readCsv(Path path, String... columns) throws IOException {
+    List<String> lines = Files.readAllLines(path);
+    List<double[]> rows = new ArrayList<>();
+    if (lines.isEmpty()) {
+      return rows;
+    }
+
+    List<String> header = Arrays.asList(lines.get(0).trim().split(","));
+    int[] indices = new int[columns.length];
+    for (int i = 0; i < columns.length; i++) {
+      indices[i] = header.indexOf(columns[i]);
+      if (indices[i] < 0) {
+        throw new IOException(path + " is missing column " + columns[i]);
+      }
+    }
+
+    for (String line : lines.subList(1, lines.size())) {
+      if (line.isBlank()) {
+        continue;
+      }
+      String[] cells = line.split(",", -1);
+      double[] row = new double[columns.length];
+      for (int i = 0; i < columns.length; i++) {
+        String cell = cells[indices[i]].trim();
+        row[i] = cell.isEmpty() ? 0 : Double.parseDouble(cell);
+      }
+      rows.add(row);
+    }
+    return rows;
+  }
+}
@@ -0,0 +1,75 @@
+package frc.robot.tools;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import edu.wpi.first.math.trajectory.Trajectory;
+import frc.robot.auto.TrajectoryGenerator;
+
+/**
+ * Times generating every getXxx() path on {@link TrajectoryGenerator} one after another against
+ * submitting them all to the generator's pool with {@link TrajectoryGenerator#async}. Each mode
+ * gets warmup rounds for the JIT, then the median of the timed rounds is reported.
+ *
+ * <p>Run with {@code ./gradlew benchmarkTrajectories -PbenchmarkArgs="20"}, the argument is the
+ * number of timed rounds.
+ */
+public final class TrajectoryBenchmark {
+
+  private static final int kWarmupRounds = 5;
+
+  private TrajectoryBenchmark() {
+  }
+
+  public static void main(String... args) throws ReflectiveOperationException {
+    int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+    TrajectoryGenerator generator = TrajectoryGenerator.getInstance();
+    List<Method> getters = TrajectoryExporter.getters();
+
+    double[] sequential = new double[rounds];
+    double[] parallel = new double[rounds];
+    for (int round = -kWarmupRounds; round < rounds; round++) {
+      long start = System.nanoTime();
+      for (Method getter : getters) {
+        getter.invoke(generator);
+      }
+      long middle = System.nanoTime();
+      List<CompletableFuture<Trajectory>> futures = new ArrayList<>();
+      for (Method getter : getters) {
+        futures.add(generator.async(() -> invoke(getter, generator)));
+      }
+      CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+      long end = System.nanoTime();
+
+      if (round >= 0) {
+        sequential[round] = (middle - start) / 1e6;
+        parallel[round] = (end - middle) / 1e6;
+      }
+    }
+
+    double sequentialMs = median(sequential);
+    double parallelMs = median(parallel);
+    System.out.printf("%d paths, %d cores, median of %d rounds%n",
+        getters.size(), Runtime.getRuntime().availableProcessors(), rounds);
+    System.out.printf("Sequential %8.1fms%n", sequentialMs);
+    System.out.printf("Parallel   %8.1fms  (%.2fx)%n", parallelMs, sequentialMs / parallelMs);
+  }
+
+  private static Trajectory invoke(Method getter, TrajectoryGenerator generator) {
+    try {
+      return (Trajectory) getter.invoke(generator);
+    }
+    catch (ReflectiveOperationException e) {
+      throw new IllegalStateException(getter.getName() + "() failed", e);
+    }
+  }
+
+  private static double median(double[] values) {
+    double[] sorted = values.clone();
+    Arrays.sort(sorted);
+    return sorted[sorted.length / 2];
+  }
+}
@@ -0,0 +1,82 @@
+package frc.robot.tools;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import edu.wpi.first.math.trajectory.Trajectory;
+import frc.robot.auto.TrajectoryAsset;
+import frc.robot.auto.TrajectoryGenerator;
+
+/**
+ * Generates every auto path on this machine and writes them to the deploy directory, so the robot
+ * loads them at boot instead of running the generator. Every public no argument getXxx() on
+ * {@link TrajectoryGenerator} that returns a Trajectory is exported under the name Xxx.
+ *
+ * <p>Runs as part of the build through {@code ./gradlew generateTrajectories}.
+ */
+public final class TrajectoryExporter {
+
+  private TrajectoryExporter() {
+  }
+
+  public static void main(String... args) throws IOException, ReflectiveOperationException {
+    if (args.length < 1) {
+      System.err.println("Usage: TrajectoryExporter <output file>");
+      System.exit(1);
+    }
+
+    TrajectoryGenerator generator = TrajectoryGenerator.getInstance();
+    List<TrajectoryAsset.Entry> entries = new ArrayList<>();
+    long start = System.nanoTime();
+    //One untimed pass first so class loading and JIT aren't charged to the first paths
+    for (Method getter : getters()) {
+      getter.invoke(generator);
+    }
+    for (Method getter : getters()) {
+      String name = getter.getName().substring(3);
+      Trajectory trajectory;
+      long generationStart = System.nanoTime();
+      try {
+        trajectory = (Trajectory) getter.invoke(generator);
+      }
+      catch (InvocationTargetException e) {
+        throw new IllegalStateException("Generating " + name + " failed", e.getCause());
+      }
+      long fingerprint = generator.getFingerprint(name);
+      if (fingerprint == 0) {
+        throw new IllegalStateException(getter.getName() + "() has to pass \"" + name + "\" to generate()");
+      }
+      //Build machine time, the robot only reports it as such
+      int generationMicros = (int) ((System.nanoTime() - generationStart) / 1000);
+      entries.add(new TrajectoryAsset.Entry(name, fingerprint, generationMicros, trajectory));
+      System.out.printf("%-32s %5d states %6.2fs%n", name, trajectory.getStates().size(), trajectory.getTotalTimeSeconds());
+    }
+
+    Path output = Path.of(args[0]);
+    TrajectoryAsset.write(output, entries);
+    System.out.printf("Wrote %d trajectories to %s (%d bytes) in %.0fms%n",
+        entries.size(), output, Files.size(output), (System.nanoTime() - start) / 1e6);
+  }
+
+  /**
+   * Every path getter on the generator, in name order so the file is the same from run to run.
+   */
+  public static List<Method> getters() {
+    List<Method> getters = new ArrayList<>();
+    for (Method method : TrajectoryGenerator.class.getMethods()) {
+      if (method.getName().startsWith("get") && method.getParameterCount() == 0
+          && method.getReturnType() == Trajectory.class && !Modifier.isStatic(method.getModifiers())) {
+        getters.add(method);
+      }
+    }
+    getters.sort(Comparator.comparing(Method::getName));
+    return getters;
+  }
+}
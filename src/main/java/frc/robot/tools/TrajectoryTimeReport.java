@@ -0,0 +1,38 @@
+package frc.robot.tools;
+
+import java.lang.reflect.Method;
+
+import edu.wpi.first.math.trajectory.Trajectory;
+import frc.robot.auto.TrajectoryGenerator;
+
+/**
+ * Prints the total time of every getXxx() path with the current constraints (trench region speed
+ * limit, centripetal cap, kAutoMaxVoltage) next to the same path with the old ones from
+ * {@link TrajectoryGenerator#baseline()}.
+ *
+ * <p>Run with {@code ./gradlew reportTrajectoryTimes}.
+ */
+public final class TrajectoryTimeReport {
+
+  private TrajectoryTimeReport() {
+  }
+
+  public static void main(String... args) throws ReflectiveOperationException {
+    TrajectoryGenerator current = TrajectoryGenerator.getInstance();
+    TrajectoryGenerator baseline = TrajectoryGenerator.baseline();
+
+    double baselineTotal = 0;
+    double currentTotal = 0;
+    System.out.printf("%-32s %10s %10s %8s%n", "Path", "Before s", "After s", "Change");
+    for (Method getter : TrajectoryExporter.getters()) {
+      double before = ((Trajectory) getter.invoke(baseline)).getTotalTimeSeconds();
+      double after = ((Trajectory) getter.invoke(current)).getTotalTimeSeconds();
+      baselineTotal += before;
+      currentTotal += after;
+      System.out.printf("%-32s %10.2f %10.2f %+7.1f%%%n",
+          getter.getName().substring(3), before, after, 100 * (after - before) / before);
+    }
+    System.out.printf("%-32s %10.2f %10.2f %+7.1f%%%n",
+        "Total", baselineTotal, currentTotal, 100 * (currentTotal - baselineTotal) / baselineTotal);
+  }
+}
@@ -0,0 +1,236 @@
+package frc.robot.util;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.util.datalog.BooleanLogEntry;
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.datalog.DoubleArrayLogEntry;
+import edu.wpi.first.util.datalog.DoubleLogEntry;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.RobotController;
+import frc.robot.Constants;
+
+/**
+ * Structured logging for the loop. Callers get a typed channel once and call log() on it from
+ * any thread; the record goes into a preallocated ring and a low priority thread writes batches
+ * of them to the WPILOG file from {@link DataLogManager}. Logging never blocks and never
+ * allocates, if the ring is full the record is dropped and counted.
+ */
+public final class AsyncLogger {
+
+  private static final AsyncLogger INSTANCE = new AsyncLogger();
+
+  private final int capacity = Constants.kLogBufferCapacity;
+  private final int mask = capacity - 1;
+
+  //One record per slot, a slot is free for index i when its sequence is i and readable at i + 1
+  private final AtomicLongArray sequences = new AtomicLongArray(capacity);
+  private final int[] channelIds = new int[capacity];
+  private final long[] timestamps = new long[capacity];
+  private final double[] as = new double[capacity];
+  private final double[] bs = new double[capacity];
+  private final double[] cs = new double[capacity];
+
+  private final AtomicLong tail = new AtomicLong();
+  //Only the writer thread touches this
+  private long head = 0;
+  private final AtomicLong dropped = new AtomicLong();
+
+  private volatile Channel[] channels = new Channel[0];
+  private DataLog log;
+
+  public static AsyncLogger getInstance() {
+    return INSTANCE;
+  }
+
+  private AsyncLogger() {
+    if (Integer.bitCount(capacity) != 1) {
+      throw new IllegalArgumentException("kLogBufferCapacity has to be a power of two");
+    }
+    for (int i = 0; i < capacity; i++) {
+      sequences.set(i, i);
+    }
+
+    Thread writer = new Thread(this::runWriter, "AsyncLogger");
+    writer.setDaemon(true);
+    writer.setPriority(Thread.MIN_PRIORITY);
+    writer.start();
+  }
+
+  public DoubleChannel doubleChannel(String name) {
+    return register(new DoubleChannel(name));
+  }
+
+  public BooleanChannel booleanChannel(String name) {
+    return register(new BooleanChannel(name));
+  }
+
+  public PoseChannel poseChannel(String name) {
+    return register(new PoseChannel(name));
+  }
+
+  //Records lost because the ring was full
+  public long getDropped() {
+    return dropped.get();
+  }
+
+  private synchronized <T extends Channel> T register(T channel) {
+    if (log == null) {
+      log = DataLogManager.getLog();
+    }
+    channel.open(log);
+    Channel[] grown = Arrays.copyOf(channels, channels.length + 1);
+    channel.id = grown.length - 1;
+    grown[channel.id] = channel;
+    channels = grown;
+    return channel;
+  }
+
+  private void offer(int channelId, double a, double b, double c) {
+    long timestamp = RobotController.getFPGATime();
+    while (true) {
+      long position = tail.get();
+      int slot = (int) (position & mask);
+      long sequence = sequences.get(slot);
+      if (sequence == position) {
+        if (tail.compareAndSet(position, position + 1)) {
+          channelIds[slot] = channelId;
+          timestamps[slot] = timestamp;
+          as[slot] = a;
+          bs[slot] = b;
+          cs[slot] = c;
+          //Publishes the fields above to the writer
+          sequences.set(slot, position + 1);
+          return;
+        }
+      }
+      else if (sequence < position) {
+        //Writer hasn't caught up, drop rather than wait
+        dropped.incrementAndGet();
+        return;
+      }
+    }
+  }
+
+  private void runWriter() {
+    if (Constants.kPinThreads) {
+      ThreadAffinity.pinCurrentThread(Constants.kLoggerCore);
+    }
+    while (true) {
+      drain();
+      try {
+        Thread.sleep(Constants.kLogDrainPeriodMs);
+      }
+      catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  private void drain() {
+    Channel[] current = channels;
+    while (true) {
+      int slot = (int) (head & mask);
+      if (sequences.get(slot) != head + 1) {
+        return;
+      }
+      int id = channelIds[slot];
+      //A channel registered after the snapshot was taken
+      if (id >= current.length) {
+        current = channels;
+      }
+      current[id].write(timestamps[slot], as[slot], bs[slot], cs[slot]);
+      sequences.set(slot, head + capacity);
+      head++;
+    }
+  }
+
+  private abstract static class Channel {
+    final String name;
+    int id;
+
+    Channel(String name) {
+      this.name = name;
+    }
+
+    abstract void open(DataLog log);
+
+    //Writer thread only
+    abstract void write(long timestamp, double a, double b, double c);
+  }
+
+  public static final class DoubleChannel extends Channel {
+    private DoubleLogEntry entry;
+
+    private DoubleChannel(String name) {
+      super(name);
+    }
+
+    public void log(double value) {
+      INSTANCE.offer(id, value, 0, 0);
+    }
+
+    @Override
+    void open(DataLog log) {
+      entry = new DoubleLogEntry(log, name);
+    }
+
+    @Override
+    void write(long timestamp, double a, double b, double c) {
+      entry.append(a, timestamp);
+    }
+  }
+
+  public static final class BooleanChannel extends Channel {
+    private BooleanLogEntry entry;
+
+    private BooleanChannel(String name) {
+      super(name);
+    }
+
+    public void log(boolean value) {
+      INSTANCE.offer(id, value ? 1 : 0, 0, 0);
+    }
+
+    @Override
+    void open(DataLog log) {
+      entry = new BooleanLogEntry(log, name);
+    }
+
+    @Override
+    void write(long timestamp, double a, double b, double c) {
+      entry.append(a != 0, timestamp);
+    }
+  }
+
+  //Logged as [x meters, y meters, heading radians]
+  public static final class PoseChannel extends Channel {
+    private DoubleArrayLogEntry entry;
+    private final double[] value = new double[3];
+
+    private PoseChannel(String name) {
+      super(name);
+    }
+
+    public void log(Pose2d pose) {
+      INSTANCE.offer(id, pose.getX(), pose.getY(), pose.getRotation().getRadians());
+    }
+
+    @Override
+    void open(DataLog log) {
+      entry = new DoubleArrayLogEntry(log, name);
+    }
+
+    @Override
+    void write(long timestamp, double a, double b, double c) {
+      value[0] = a;
+      value[1] = b;
+      value[2] = c;
+      entry.append(value, timestamp);
+    }
+  }
+}
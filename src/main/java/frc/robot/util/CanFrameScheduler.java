@@ -0,0 +1,181 @@
+package frc.robot.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+
+/**
+ * Owns the status frame period of every CAN device. Each device registers the frames it cares
+ * about with a period for disabled, auto and teleop (and optionally a faster "boosted" period,
+ * like the shooter while it is spun up). Periods are only sent when they actually change.
+ *
+ * <p>Only call from the main robot thread.
+ */
+public class CanFrameScheduler {
+
+  public enum Mode {
+    DISABLED, AUTONOMOUS, TELEOP
+  }
+
+  //A full 8 byte extended frame is 128 bits before stuffing, plan for the worst case
+  private static final double kBitsPerFrame = 160;
+  private static final double kBusBitsPerSecond = 1000000;
+  //Phoenix 5 can't go slower than this
+  private static final int kMaxPeriodMs = 255;
+
+  private static final CanFrameScheduler INSTANCE = new CanFrameScheduler();
+
+  private final List<Device> devices = new ArrayList<>();
+  private Mode mode = Mode.DISABLED;
+
+  public static CanFrameScheduler getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Registers a device. Add its frames with {@link Device#frame}.
+   */
+  public Device register(String name) {
+    Device device = new Device(name);
+    devices.add(device);
+    return device;
+  }
+
+  /**
+   * Switches every device to the profile for a robot mode.
+   */
+  public void setMode(Mode mode) {
+    this.mode = mode;
+    for (Device device : devices) {
+      device.apply();
+    }
+    publish();
+  }
+
+  /**
+   * Sends every period again even if it hasn't changed, for after the devices have been
+   * factory defaulted at boot.
+   */
+  public void resendAll() {
+    for (Device device : devices) {
+      for (Frame frame : device.frames) {
+        frame.appliedMs = -1;
+      }
+      device.apply();
+    }
+    publish();
+  }
+
+  public Mode getMode() {
+    return mode;
+  }
+
+  /**
+   * Estimated fraction of the bus used by the frames this scheduler manages.
+   */
+  public double getEstimatedUtilization() {
+    double bitsPerSecond = 0;
+    for (Device device : devices) {
+      for (Frame frame : device.frames) {
+        if (frame.appliedMs > 0) {
+          bitsPerSecond += kBitsPerFrame * 1000.0 / frame.appliedMs;
+        }
+      }
+    }
+    return bitsPerSecond / kBusBitsPerSecond;
+  }
+
+  private void publish() {
+    SmartDashboard.putNumber("CAN/Estimated Status Utilization", getEstimatedUtilization());
+  }
+
+  public class Device {
+    private final String name;
+    private final List<Frame> frames = new ArrayList<>();
+    private boolean boosted = false;
+
+    private Device(String name) {
+      this.name = name;
+    }
+
+    /**
+     * Adds a status frame with the same period in every mode.
+     */
+    public Device frame(String frameName, IntConsumer setPeriodMs, int periodMs) {
+      return frame(frameName, setPeriodMs, periodMs, periodMs, periodMs);
+    }
+
+    /**
+     * Adds a status frame with a period per mode.
+     *
+     * @param setPeriodMs sends the period to the device, e.g. {@code ms -> talon.setStatusFramePeriod(frame, ms, 0)}
+     */
+    public Device frame(String frameName, IntConsumer setPeriodMs, int disabledMs, int autonomousMs, int teleopMs) {
+      Frame frame = new Frame(frameName, setPeriodMs, new int[] {disabledMs, autonomousMs, teleopMs});
+      frames.add(frame);
+      frame.apply(mode, boosted);
+      return this;
+    }
+
+    /**
+     * Sets the period used for the last added frame while the device is boosted, in any mode.
+     */
+    public Device boosted(int periodMs) {
+      Frame frame = frames.get(frames.size() - 1);
+      frame.boostedMs = periodMs;
+      frame.apply(mode, boosted);
+      return this;
+    }
+
+    /**
+     * Switches the boosted frames of this device to their fast period, or back.
+     */
+    public void setBoosted(boolean boosted) {
+      if (this.boosted != boosted) {
+        this.boosted = boosted;
+        apply();
+        publish();
+      }
+    }
+
+    private void apply() {
+      for (Frame frame : frames) {
+        frame.apply(mode, boosted);
+      }
+    }
+
+    public String getName() {
+      return name;
+    }
+  }
+
+  private static class Frame {
+    private final String name;
+    private final IntConsumer setPeriodMs;
+    private final int[] modePeriodsMs;
+    private int boostedMs = -1;
+    private int appliedMs = -1;
+
+    private Frame(String name, IntConsumer setPeriodMs, int[] modePeriodsMs) {
+      this.name = name;
+      this.setPeriodMs = setPeriodMs;
+      this.modePeriodsMs = modePeriodsMs;
+    }
+
+    private void apply(Mode mode, boolean boosted) {
+      int periodMs = boosted && boostedMs > 0 ? boostedMs : modePeriodsMs[mode.ordinal()];
+      periodMs = Math.min(periodMs, kMaxPeriodMs);
+      if (periodMs != appliedMs) {
+        setPeriodMs.accept(periodMs);
+        appliedMs = periodMs;
+      }
+    }
+
+    @Override
+    public String toString() {
+      return name + " " + appliedMs + "ms";
+    }
+  }
+}
@@ -0,0 +1,91 @@
+package frc.robot.util;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+
+/**
+ * A subsystem's control mode held in an atomic reference instead of behind synchronized
+ * getters. Reads never block, and transitions are a single swap or compare-and-set, so any
+ * thread can change the mode while periodic() or the control thread is reading it.
+ *
+ * <p>Transition hooks run once per actual change, on the thread that made it. When several
+ * threads change the mode at once their hooks can run at the same time and in any order, so a
+ * hook must be thread safe and must not assume it sees the transitions in sequence; anything it
+ * writes for another thread to read needs to be volatile or atomic. Keep them short.
+ */
+public class ControlModeState<E extends Enum<E>> {
+
+  private final AtomicReference<E> mode;
+  private final List<BiConsumer<E, E>> hooks = new CopyOnWriteArrayList<>();
+  private final AtomicLong transitions = new AtomicLong();
+
+  public ControlModeState(E initial) {
+    mode = new AtomicReference<>(initial);
+  }
+
+  public E get() {
+    return mode.get();
+  }
+
+  /**
+   * Switches to a mode. Hooks only run if the mode actually changed.
+   *
+   * @return the mode before the switch
+   */
+  public E set(E next) {
+    E previous = mode.getAndSet(next);
+    if (previous != next) {
+      transitioned(previous, next);
+    }
+    return previous;
+  }
+
+  /**
+   * Switches to a mode only if the current mode is the expected one, e.g. so a command doesn't
+   * override a mode something else has already moved on from.
+   *
+   * @return true if the switch happened
+   */
+  public boolean compareAndSet(E expected, E next) {
+    if (!mode.compareAndSet(expected, next)) {
+      return false;
+    }
+    if (expected != next) {
+      transitioned(expected, next);
+    }
+    return true;
+  }
+
+  /**
+   * Adds a hook called with (from, to) after every change of mode.
+   */
+  public void onTransition(BiConsumer<E, E> hook) {
+    hooks.add(hook);
+  }
+
+  /**
+   * Adds a hook called every time the given mode is entered.
+   */
+  public void onEnter(E target, Runnable hook) {
+    onTransition((from, to) -> {
+      if (to == target) {
+        hook.run();
+      }
+    });
+  }
+
+  //Number of actual mode changes since startup
+  public long getTransitions() {
+    return transitions.get();
+  }
+
+  private void transitioned(E from, E to) {
+    transitions.incrementAndGet();
+    for (BiConsumer<E, E> hook : hooks) {
+      hook.accept(from, to);
+    }
+  }
+}
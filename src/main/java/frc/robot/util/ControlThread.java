@@ -0,0 +1,141 @@
+package frc.robot.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.Threads;
+import frc.robot.Constants;
+
+/**
+ * Runs the timing critical work (drive output, shooter velocity, odometry) on its own Notifier
+ * thread every kControlPeriodSeconds, at real time priority and optionally pinned to one core.
+ * Work registers with a divisor, a task with divisor 2 runs every other tick.
+ *
+ * <p>Tasks share nothing with the main thread except what they hand over through volatile
+ * fields or atomics. With kUseControlThread off, tasks go to the {@link RateScheduler} on the
+ * main thread instead, so the jitter of both can be compared.
+ */
+public class ControlThread {
+
+  private static final ControlThread INSTANCE = new ControlThread();
+
+  private final List<Task> tasks = new ArrayList<>();
+  private final Notifier notifier = new Notifier(this::tick);
+  private final long periodNanos = (long) (Constants.kControlPeriodSeconds * 1e9);
+
+  //Control thread only
+  private boolean prioritySet = false;
+  private long ticks = 0;
+  private long lastTickNanos = 0;
+  private final LogHistogram jitter = new LogHistogram();
+  private final LogHistogram duration = new LogHistogram();
+
+  //Snapshot of the histograms, taken by the control thread when the main thread asks
+  private final AtomicBoolean snapshotRequested = new AtomicBoolean();
+  private volatile double[] snapshot = new double[6];
+
+  private final NetworkTable table = NetworkTableInstance.getDefault().getTable("ControlThread");
+  private final DoublePublisher[] publishers = {
+      table.getDoubleTopic("jitter p50 ms").publish(),
+      table.getDoubleTopic("jitter p99 ms").publish(),
+      table.getDoubleTopic("jitter max ms").publish(),
+      table.getDoubleTopic("duration p50 ms").publish(),
+      table.getDoubleTopic("duration p99 ms").publish(),
+      table.getDoubleTopic("duration max ms").publish()
+  };
+  private long lastPublishNanos = System.nanoTime();
+
+  public static ControlThread getInstance() {
+    return INSTANCE;
+  }
+
+  private ControlThread() {
+    notifier.setName("ControlThread");
+  }
+
+  /**
+   * Adds work to run every divisor ticks of the control thread. Has to be called before
+   * {@link #start()}.
+   */
+  public void register(String name, int divisor, Runnable task) {
+    if (Constants.kUseControlThread) {
+      tasks.add(new Task(divisor, task));
+    }
+    else {
+      RateScheduler.getInstance().register(name, Constants.kControlPeriodSeconds * divisor, task);
+    }
+  }
+
+  public void start() {
+    if (Constants.kUseControlThread) {
+      notifier.startPeriodic(Constants.kControlPeriodSeconds);
+    }
+  }
+
+  private void tick() {
+    long start = System.nanoTime();
+    if (!prioritySet) {
+      prioritySet = true;
+      if (!Threads.setCurrentThreadPriority(true, Constants.kControlThreadPriority)) {
+        DriverStation.reportWarning("ControlThread could not get real time priority", false);
+      }
+      if (Constants.kPinThreads) {
+        ThreadAffinity.pinCurrentThread(Constants.kControlCore);
+      }
+    }
+    if (lastTickNanos != 0) {
+      jitter.recordNanos(Math.abs(start - lastTickNanos - periodNanos));
+    }
+    lastTickNanos = start;
+
+    for (Task task : tasks) {
+      if (ticks % task.divisor == 0) {
+        task.runnable.run();
+      }
+    }
+    ticks++;
+
+    if (snapshotRequested.getAndSet(false)) {
+      snapshot = new double[] {
+          jitter.percentile(0.5) / 1000.0, jitter.percentile(0.99) / 1000.0, jitter.getMax() / 1000.0,
+          duration.percentile(0.5) / 1000.0, duration.percentile(0.99) / 1000.0, duration.getMax() / 1000.0
+      };
+      jitter.reset();
+      duration.reset();
+    }
+    duration.recordNanos(System.nanoTime() - start);
+  }
+
+  /**
+   * Publishes the jitter and run time of the control thread once a second. Runs as deferred work
+   * under the {@link LoopBudget}.
+   */
+  public void publish() {
+    long now = System.nanoTime();
+    if (now - lastPublishNanos >= Constants.kProfilerPublishPeriodSeconds * 1e9) {
+      lastPublishNanos = now;
+      //Publishes the last snapshot and asks for the next
+      double[] values = snapshot;
+      for (int i = 0; i < publishers.length; i++) {
+        publishers[i].set(values[i]);
+      }
+      snapshotRequested.set(true);
+    }
+  }
+
+  private static class Task {
+    private final int divisor;
+    private final Runnable runnable;
+
+    private Task(int divisor, Runnable runnable) {
+      this.divisor = divisor;
+      this.runnable = runnable;
+    }
+  }
+}
@@ -0,0 +1,154 @@
+package frc.robot.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.ctre.phoenix.ErrorCode;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import frc.robot.Constants;
+
+/**
+ * Runs the blocking boot time configuration of each CAN device on a small thread pool so the
+ * round trips to different devices overlap. Subsystem constructors submit one task per device,
+ * robotInit() waits for all of them with {@link #awaitCompletion()} and every device's time and
+ * failed calls get reported.
+ *
+ * <p>Calls inside a task run in order, so a device's factory default always lands before the
+ * rest of its config. Don't touch the device from anywhere else until the barrier has passed.
+ */
+public class DeviceConfigurator {
+
+  @FunctionalInterface
+  public interface Task {
+    void configure(Device device);
+  }
+
+  private static final DeviceConfigurator INSTANCE = new DeviceConfigurator();
+
+  private final List<Device> devices = new ArrayList<>();
+  private ExecutorService executor;
+  //When the first device was queued, the parallel config starts there
+  private long firstSubmitNanos;
+
+  public static DeviceConfigurator getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Queues the configuration of one device. Only call from the main robot thread.
+   */
+  public void submit(String name, Task task) {
+    if (executor == null) {
+      firstSubmitNanos = System.nanoTime();
+      AtomicInteger count = new AtomicInteger();
+      executor = Executors.newFixedThreadPool(Constants.kDeviceConfigThreads, runnable -> {
+        Thread thread = new Thread(runnable, "DeviceConfig-" + count.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+
+    Device device = new Device(name);
+    device.future = executor.submit(() -> device.run(task));
+    devices.add(device);
+  }
+
+  /**
+   * Blocks until every submitted device is configured (or kDeviceConfigTimeoutSeconds runs out)
+   * and reports how long each took and which calls failed. The wall time, from the first submit
+   * to the last device finishing, goes next to the summed device time under Config/.
+   *
+   * @return true if every device finished without an error
+   */
+  public boolean awaitCompletion() {
+    if (executor == null) {
+      return true;
+    }
+
+    long start = System.nanoTime();
+    long deadline = start + (long) (Constants.kDeviceConfigTimeoutSeconds * 1e9);
+    boolean ok = true;
+    double deviceMs = 0;
+    for (Device device : devices) {
+      try {
+        device.future.get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+      }
+      catch (Exception e) {
+        device.future.cancel(true);
+        device.check("did not finish", e.toString());
+      }
+
+      deviceMs += device.elapsedMs;
+      SmartDashboard.putNumber("Config/" + device.name + " ms", device.elapsedMs);
+      String failures = device.getFailures();
+      if (!failures.isEmpty()) {
+        ok = false;
+        DriverStation.reportWarning("Config " + device.name + " failed: " + failures, false);
+      }
+    }
+    SmartDashboard.putNumber("Config/Devices", devices.size());
+    SmartDashboard.putNumber("Config/Device ms", deviceMs);
+    SmartDashboard.putNumber("Config/Wall ms", (System.nanoTime() - firstSubmitNanos) / 1e6);
+
+    executor.shutdown();
+    executor = null;
+    devices.clear();
+    return ok;
+  }
+
+  public static class Device {
+    private final String name;
+    private final List<String> failures = new ArrayList<>();
+    private Future<?> future;
+    private volatile double elapsedMs;
+
+    private Device(String name) {
+      this.name = name;
+    }
+
+    /**
+     * Records a failed config call. Pass the ErrorCode straight from Phoenix.
+     */
+    public ErrorCode check(String step, ErrorCode error) {
+      if (error != ErrorCode.OK) {
+        check(step, error.toString());
+      }
+      return error;
+    }
+
+    private void check(String step, String failure) {
+      //A timed out task can still be running while the barrier reports it
+      synchronized (failures) {
+        failures.add(step + " " + failure);
+      }
+    }
+
+    private String getFailures() {
+      synchronized (failures) {
+        return String.join(", ", failures);
+      }
+    }
+
+    private void run(Task task) {
+      long start = System.nanoTime();
+      try {
+        task.configure(this);
+      }
+      catch (RuntimeException e) {
+        check("threw", e.toString());
+      }
+      elapsedMs = (System.nanoTime() - start) / 1e6;
+    }
+
+    public String getName() {
+      return name;
+    }
+  }
+}
@@ -0,0 +1,83 @@
+package frc.robot.util;
+
+import java.util.Arrays;
+
+/**
+ * Histogram of durations in microseconds with log2 sized buckets split into 8 linear steps,
+ * so every reading is kept to within about 12%. Recording never allocates.
+ *
+ * <p>Not thread safe, keep each histogram on one thread.
+ */
+public class LogHistogram {
+
+  private static final int kSubBucketBits = 3;
+  private static final int kSubBuckets = 1 << kSubBucketBits;
+  //Enough buckets for anything that fits in an int of microseconds (~35 minutes)
+  private static final int kBuckets = kSubBuckets + (31 - kSubBucketBits) * kSubBuckets + kSubBuckets;
+
+  private final long[] counts = new long[kBuckets];
+  private long count = 0;
+  private long max = 0;
+
+  public void record(long micros) {
+    long value = Math.max(micros, 0);
+    counts[bucket(value)]++;
+    count++;
+    max = Math.max(max, value);
+  }
+
+  public void recordNanos(long nanos) {
+    record(nanos / 1000);
+  }
+
+  /**
+   * Returns the upper edge of the bucket holding the given fraction of samples, in microseconds.
+   */
+  public long percentile(double fraction) {
+    if (count == 0) {
+      return 0;
+    }
+    long rank = Math.max((long) Math.ceil(fraction * count), 1);
+    long seen = 0;
+    for (int i = 0; i < kBuckets; i++) {
+      seen += counts[i];
+      if (seen >= rank) {
+        return Math.min(upperBound(i), max);
+      }
+    }
+    return max;
+  }
+
+  public long getMax() {
+    return max;
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  public void reset() {
+    Arrays.fill(counts, 0);
+    count = 0;
+    max = 0;
+  }
+
+  private static int bucket(long value) {
+    if (value < kSubBuckets) {
+      return (int) value;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    int shift = exponent - kSubBucketBits;
+    int mantissa = (int) (value >> shift) & (kSubBuckets - 1);
+    return Math.min(kSubBuckets + shift * kSubBuckets + mantissa, kBuckets - 1);
+  }
+
+  private static long upperBound(int bucket) {
+    if (bucket < kSubBuckets) {
+      return bucket;
+    }
+    int shift = (bucket - kSubBuckets) / kSubBuckets;
+    int mantissa = (bucket - kSubBuckets) % kSubBuckets;
+    return ((long) (kSubBuckets + mantissa + 1) << shift) - 1;
+  }
+}
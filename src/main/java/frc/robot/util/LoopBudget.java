@@ -0,0 +1,115 @@
+package frc.robot.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import frc.robot.Constants;
+
+/**
+ * Keeps the non-critical work of the loop (dashboards, profiler output, diagnostics) inside a
+ * time budget. Control work runs first as usual; deferred tasks then run in the order they were
+ * registered until the loop has used kLoopBudgetSeconds, and the rest are pushed to a later loop.
+ * A task is never put off more than kMaxDeferredLoops in a row. Tasks registered with
+ * {@link #registerAlways} run every loop whatever the budget says.
+ *
+ * <p>Only call from the main robot thread.
+ */
+public class LoopBudget {
+
+  private static final LoopBudget INSTANCE = new LoopBudget();
+
+  private final List<Task> tasks = new ArrayList<>();
+  private final long budgetNanos;
+  private long loopStartNanos = System.nanoTime();
+  private long shedLoops = 0;
+
+  public static LoopBudget getInstance() {
+    return INSTANCE;
+  }
+
+  private LoopBudget() {
+    this(Constants.kLoopBudgetSeconds);
+  }
+
+  //For tests
+  LoopBudget(double budgetSeconds) {
+    budgetNanos = (long) (budgetSeconds * 1e9);
+  }
+
+  /**
+   * Adds work that can wait a loop. Register the most important tasks first.
+   */
+  public void register(String name, Runnable task) {
+    tasks.add(new Task(name, task, true));
+  }
+
+  /**
+   * Adds work that has to run every loop but belongs with the deferred work, e.g. the HIGH
+   * priority telemetry. It runs in registration order with the rest and is never put off.
+   */
+  public void registerAlways(String name, Runnable task) {
+    tasks.add(new Task(name, task, false));
+  }
+
+  //Call first thing in the loop
+  public void beginLoop() {
+    loopStartNanos = System.nanoTime();
+  }
+
+  public long getElapsedNanos() {
+    return System.nanoTime() - loopStartNanos;
+  }
+
+  public boolean isExhausted() {
+    return getElapsedNanos() >= budgetNanos;
+  }
+
+  /**
+   * Runs the deferred tasks that fit in what is left of the budget. Call after the control work.
+   */
+  public void runDeferred() {
+    boolean shed = false;
+    for (Task task : tasks) {
+      if (task.deferrable && isExhausted() && task.deferredInARow < Constants.kMaxDeferredLoops) {
+        task.deferredInARow++;
+        task.shed++;
+        shed = true;
+        continue;
+      }
+      task.deferredInARow = 0;
+      task.runnable.run();
+    }
+    if (shed) {
+      shedLoops++;
+    }
+  }
+
+  //Loops where at least one task was put off
+  public long getShedLoops() {
+    return shedLoops;
+  }
+
+  //Times the named task was put off, -1 if there is no such task
+  public long getShed(String name) {
+    for (Task task : tasks) {
+      if (task.name.equals(name)) {
+        return task.shed;
+      }
+    }
+    return -1;
+  }
+
+  private static class Task {
+    private final String name;
+    private final Runnable runnable;
+    private final boolean deferrable;
+    private int deferredInARow = 0;
+    private long shed = 0;
+
+    private Task(String name, Runnable runnable, boolean deferrable) {
+      this.name = name;
+      this.runnable = runnable;
+      this.deferrable = deferrable;
+    }
+  }
+}
@@ -0,0 +1,185 @@
+package frc.robot.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.robot.Constants;
+
+/**
+ * Times named sections of the robot loop (subsystem periodics, each command's execute, vision
+ * reads) into {@link LogHistogram}s and publishes p50/p99/max per section under "Profiler" once a
+ * second. When the loop runs over its period, every section that took a large share of that loop
+ * gets an overrun counted against it.
+ *
+ * <p>Only what asks for a section is timed: the Limelight read, the whole CommandScheduler run,
+ * deferred work, RateScheduler tasks, and of the subsystems only Drive.periodic() and
+ * Turret.periodic(). The other subsystems' periodic() time only shows in CommandScheduler.
+ *
+ * <p>Only call from the main robot thread.
+ */
+public class LoopProfiler {
+
+  private static final LoopProfiler INSTANCE = new LoopProfiler();
+
+  private final NetworkTable table = NetworkTableInstance.getDefault().getTable("Profiler");
+  private final List<Section> sections = new ArrayList<>();
+  private final Map<String, Section> commandSections = new HashMap<>();
+
+  private final Section loop;
+  private final DoublePublisher loopOverrunsPublisher;
+  private long loopOverruns = 0;
+
+  //Sections that have run since beginLoop(), for attributing an overrun
+  private final Section[] ranThisLoop = new Section[Constants.kProfilerMaxSectionsPerLoop];
+  private int ranThisLoopCount = 0;
+
+  private long lastMarkNanos = 0;
+  private long lastPublishNanos = System.nanoTime();
+
+  public static LoopProfiler getInstance() {
+    return INSTANCE;
+  }
+
+  private LoopProfiler() {
+    loop = new Section("Loop");
+    loopOverrunsPublisher = table.getDoubleTopic("Loop Overruns").publish();
+  }
+
+  /**
+   * Returns the section with this name, creating it the first time.
+   */
+  public Section section(String name) {
+    for (Section section : sections) {
+      if (section.name.equals(name)) {
+        return section;
+      }
+    }
+    Section section = new Section(name);
+    sections.add(section);
+    return section;
+  }
+
+  /**
+   * Starts timing each scheduled command's execute(). The scheduler has no callback before
+   * execute(), only after it, so each one is timed from the last mark. Marks are taken once the
+   * triggers have been polled, after each execute(), and after every initialize(), end() and
+   * interrupt, so a finishing command's end() isn't charged to the next command. What is still
+   * charged to the next command is isFinished() of a command that keeps running, normally a
+   * comparison. Call after every button binding is in place.
+   */
+  public void bindCommandScheduler() {
+    CommandScheduler scheduler = CommandScheduler.getInstance();
+    scheduler.getDefaultButtonLoop().bind(this::mark);
+    scheduler.onCommandExecute(this::commandExecuted);
+    scheduler.onCommandInitialize(command -> mark());
+    scheduler.onCommandFinish(command -> mark());
+    scheduler.onCommandInterrupt(command -> mark());
+  }
+
+  public void beginLoop() {
+    ranThisLoopCount = 0;
+    loop.start();
+  }
+
+  /**
+   * Ends the loop timing and attributes an overrun if the loop ran longer than the period.
+   */
+  public void endLoop(double periodSeconds) {
+    long loopNanos = loop.stop();
+    long periodNanos = (long) (periodSeconds * 1e9);
+    if (loopNanos > periodNanos) {
+      loopOverruns++;
+      for (int i = 0; i < ranThisLoopCount; i++) {
+        Section section = ranThisLoop[i];
+        if (section.lastNanos >= loopNanos * Constants.kProfilerOverrunShare) {
+          section.overruns++;
+        }
+      }
+    }
+  }
+
+  /**
+   * Publishes every section once a second. Runs as deferred work under the {@link LoopBudget}.
+   */
+  public void publish() {
+    long now = System.nanoTime();
+    if (now - lastPublishNanos >= Constants.kProfilerPublishPeriodSeconds * 1e9) {
+      lastPublishNanos = now;
+      loop.publish();
+      for (Section section : sections) {
+        section.publish();
+      }
+      loopOverrunsPublisher.set(loopOverruns);
+    }
+  }
+
+  private void mark() {
+    lastMarkNanos = System.nanoTime();
+  }
+
+  private void commandExecuted(Command command) {
+    long now = System.nanoTime();
+    Section section = commandSections.get(command.getName());
+    if (section == null) {
+      section = section(command.getName() + ".execute()");
+      commandSections.put(command.getName(), section);
+    }
+    section.record(now - lastMarkNanos);
+    lastMarkNanos = now;
+  }
+
+  public class Section {
+    private final String name;
+    private final LogHistogram histogram = new LogHistogram();
+    private final DoublePublisher p50Publisher;
+    private final DoublePublisher p99Publisher;
+    private final DoublePublisher maxPublisher;
+    private final DoublePublisher overrunsPublisher;
+
+    private long startNanos;
+    private long lastNanos;
+    private long overruns = 0;
+
+    private Section(String name) {
+      this.name = name;
+      p50Publisher = table.getDoubleTopic(name + "/p50 ms").publish();
+      p99Publisher = table.getDoubleTopic(name + "/p99 ms").publish();
+      maxPublisher = table.getDoubleTopic(name + "/max ms").publish();
+      overrunsPublisher = table.getDoubleTopic(name + "/overruns").publish();
+    }
+
+    public void start() {
+      startNanos = System.nanoTime();
+    }
+
+    //Returns how long the section took
+    public long stop() {
+      long nanos = System.nanoTime() - startNanos;
+      record(nanos);
+      return nanos;
+    }
+
+    private void record(long nanos) {
+      histogram.recordNanos(nanos);
+      lastNanos = nanos;
+      if (this != loop && ranThisLoopCount < ranThisLoop.length) {
+        ranThisLoop[ranThisLoopCount++] = this;
+      }
+    }
+
+    private void publish() {
+      p50Publisher.set(histogram.percentile(0.5) / 1000.0);
+      p99Publisher.set(histogram.percentile(0.99) / 1000.0);
+      maxPublisher.set(histogram.getMax() / 1000.0);
+      overrunsPublisher.set(overruns);
+      histogram.reset();
+    }
+  }
+}
@@ -0,0 +1,160 @@
+package frc.robot.util;
+
+import java.util.Arrays;
+
+import com.ctre.phoenix.ErrorCode;
+import com.ctre.phoenix.motorcontrol.can.BaseMotorController;
+
+/**
+ * Remembers the last value written to each config parameter of a Talon/Victor and skips writes
+ * that wouldn't change anything, so a config call can sit in a periodic loop without sending a
+ * CAN transaction every 20ms. Method names match Phoenix so it drops in for the motor.
+ *
+ * <p>Failed writes are not remembered, the next call tries again. Writes and skipped writes are
+ * published under Config/ at LOW priority.
+ */
+public class MotorConfig {
+
+  private static final int kSlots = 4;
+
+  //Per slot parameters
+  private static final int kP = 0;
+  private static final int kI = 1;
+  private static final int kD = 2;
+  private static final int kF = 3;
+  private static final int kIntegralZone = 4;
+  private static final int kSlotParams = 5;
+
+  private final BaseMotorController motor;
+  private final double[] slotValues = new double[kSlots * kSlotParams];
+  private double feedbackCoefficient = Double.NaN;
+  private int profileSlot = -1;
+
+  //Written by whichever thread configures the motor, read for telemetry on the main thread
+  private volatile int writes = 0;
+  private volatile int suppressed = 0;
+
+  public MotorConfig(String name, BaseMotorController motor) {
+    this.motor = motor;
+    Arrays.fill(slotValues, Double.NaN);
+    Telemetry telemetry = Telemetry.getInstance();
+    telemetry.addNumber("Config/" + name + " Writes", this::getWrites, Telemetry.Priority.LOW, 1);
+    telemetry.addNumber("Config/" + name + " Suppressed", this::getSuppressed, Telemetry.Priority.LOW, 1);
+  }
+
+  public ErrorCode config_kP(int slotIdx, double value) {
+    return config_kP(slotIdx, value, 0);
+  }
+
+  public ErrorCode config_kP(int slotIdx, double value, int timeoutMs) {
+    if (isCurrent(slotIdx, kP, value)) {
+      return ErrorCode.OK;
+    }
+    return remember(slotIdx, kP, value, motor.config_kP(slotIdx, value, timeoutMs));
+  }
+
+  public ErrorCode config_kI(int slotIdx, double value) {
+    return config_kI(slotIdx, value, 0);
+  }
+
+  public ErrorCode config_kI(int slotIdx, double value, int timeoutMs) {
+    if (isCurrent(slotIdx, kI, value)) {
+      return ErrorCode.OK;
+    }
+    return remember(slotIdx, kI, value, motor.config_kI(slotIdx, value, timeoutMs));
+  }
+
+  public ErrorCode config_kD(int slotIdx, double value) {
+    return config_kD(slotIdx, value, 0);
+  }
+
+  public ErrorCode config_kD(int slotIdx, double value, int timeoutMs) {
+    if (isCurrent(slotIdx, kD, value)) {
+      return ErrorCode.OK;
+    }
+    return remember(slotIdx, kD, value, motor.config_kD(slotIdx, value, timeoutMs));
+  }
+
+  public ErrorCode config_kF(int slotIdx, double value) {
+    return config_kF(slotIdx, value, 0);
+  }
+
+  public ErrorCode config_kF(int slotIdx, double value, int timeoutMs) {
+    if (isCurrent(slotIdx, kF, value)) {
+      return ErrorCode.OK;
+    }
+    return remember(slotIdx, kF, value, motor.config_kF(slotIdx, value, timeoutMs));
+  }
+
+  public ErrorCode config_IntegralZone(int slotIdx, double value) {
+    return config_IntegralZone(slotIdx, value, 0);
+  }
+
+  public ErrorCode config_IntegralZone(int slotIdx, double value, int timeoutMs) {
+    if (isCurrent(slotIdx, kIntegralZone, value)) {
+      return ErrorCode.OK;
+    }
+    return remember(slotIdx, kIntegralZone, value, motor.config_IntegralZone(slotIdx, value, timeoutMs));
+  }
+
+  public ErrorCode configSelectedFeedbackCoefficient(double coefficient) {
+    return configSelectedFeedbackCoefficient(coefficient, 0);
+  }
+
+  public ErrorCode configSelectedFeedbackCoefficient(double coefficient, int timeoutMs) {
+    if (coefficient == feedbackCoefficient) {
+      suppressed++;
+      return ErrorCode.OK;
+    }
+    writes++;
+    ErrorCode error = motor.configSelectedFeedbackCoefficient(coefficient, 0, timeoutMs);
+    feedbackCoefficient = error == ErrorCode.OK ? coefficient : Double.NaN;
+    return error;
+  }
+
+  public ErrorCode selectProfileSlot(int slotIdx, int pidIdx) {
+    if (slotIdx == profileSlot && pidIdx == 0) {
+      suppressed++;
+      return ErrorCode.OK;
+    }
+    writes++;
+    motor.selectProfileSlot(slotIdx, pidIdx);
+    if (pidIdx == 0) {
+      profileSlot = slotIdx;
+    }
+    return ErrorCode.OK;
+  }
+
+  /**
+   * Forgets every cached value, call after configFactoryDefault() or a motor controller reboot.
+   */
+  public void invalidate() {
+    Arrays.fill(slotValues, Double.NaN);
+    feedbackCoefficient = Double.NaN;
+    profileSlot = -1;
+  }
+
+  //Number of config calls that went out to the motor controller
+  public int getWrites() {
+    return writes;
+  }
+
+  //Number of config calls skipped because nothing changed
+  public int getSuppressed() {
+    return suppressed;
+  }
+
+  private boolean isCurrent(int slotIdx, int param, double value) {
+    if (slotValues[slotIdx * kSlotParams + param] == value) {
+      suppressed++;
+      return true;
+    }
+    writes++;
+    return false;
+  }
+
+  private ErrorCode remember(int slotIdx, int param, double value, ErrorCode error) {
+    slotValues[slotIdx * kSlotParams + param] = error == ErrorCode.OK ? value : Double.NaN;
+    return error;
+  }
+}
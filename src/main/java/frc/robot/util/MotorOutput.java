@@ -0,0 +1,88 @@
+package frc.robot.util;
+
+import com.ctre.phoenix.motorcontrol.ControlMode;
+import com.ctre.phoenix.motorcontrol.DemandType;
+import com.ctre.phoenix.motorcontrol.can.BaseMotorController;
+
+import frc.robot.Constants;
+
+/**
+ * Sits in front of a Talon/Victor and only passes a set() through when the control mode changes,
+ * the value moves more than epsilon, or the keep-alive period has run out. Every write to the
+ * motor has to go through here or the cached value goes stale. Frames sent and skipped are
+ * published under Outputs/ at LOW priority.
+ */
+public class MotorOutput {
+
+  private final String name;
+  private final BaseMotorController motor;
+  private final double epsilon;
+  private final long keepAliveNanos;
+
+  private ControlMode lastMode = null;
+  private DemandType lastDemandType = DemandType.Neutral;
+  private double lastValue = 0;
+  private double lastDemand = 0;
+  private long lastSentNanos = 0;
+
+  //Written by the thread that owns the motor, read for telemetry on the main thread
+  private volatile int sent = 0;
+  private volatile int suppressed = 0;
+
+  public MotorOutput(String name, BaseMotorController motor) {
+    this(name, motor, Constants.kOutputEpsilon, Constants.kOutputKeepAliveSeconds);
+  }
+
+  public MotorOutput(String name, BaseMotorController motor, double epsilon, double keepAliveSeconds) {
+    this.name = name;
+    this.motor = motor;
+    this.epsilon = epsilon;
+    this.keepAliveNanos = (long) (keepAliveSeconds * 1e9);
+    Telemetry telemetry = Telemetry.getInstance();
+    telemetry.addNumber("Outputs/" + name + " Sent", this::getSent, Telemetry.Priority.LOW, 1);
+    telemetry.addNumber("Outputs/" + name + " Suppressed", this::getSuppressed, Telemetry.Priority.LOW, 1);
+  }
+
+  public void set(ControlMode mode, double value) {
+    set(mode, value, DemandType.Neutral, 0);
+  }
+
+  public void set(ControlMode mode, double value, DemandType demandType, double demand) {
+    long now = System.nanoTime();
+    if (mode == lastMode
+        && demandType == lastDemandType
+        && Math.abs(value - lastValue) <= epsilon
+        && Math.abs(demand - lastDemand) <= epsilon
+        && now - lastSentNanos < keepAliveNanos) {
+      suppressed++;
+      return;
+    }
+
+    if (demandType == DemandType.Neutral) {
+      motor.set(mode, value);
+    }
+    else {
+      motor.set(mode, value, demandType, demand);
+    }
+    lastMode = mode;
+    lastDemandType = demandType;
+    lastValue = value;
+    lastDemand = demand;
+    lastSentNanos = now;
+    sent++;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  //Number of frames passed through to the motor controller
+  public int getSent() {
+    return sent;
+  }
+
+  //Number of set() calls skipped because nothing changed
+  public int getSuppressed() {
+    return suppressed;
+  }
+}
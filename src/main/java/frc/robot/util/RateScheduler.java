@@ -0,0 +1,154 @@
+package frc.robot.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.TimedRobot;
+import frc.robot.Constants;
+
+/**
+ * Lets a subsystem run work faster or slower than the 50Hz scheduler loop. Subsystems register a
+ * callback with its period from their constructor, robotInit() installs them all on the
+ * TimedRobot with {@link #install}. Every callback shares the main thread, so each one gets the
+ * phase offset furthest from everything already placed (the main loop included) to keep them
+ * from landing on top of each other.
+ *
+ * <p>The period and offset picked for each callback are published under "Rates" on install. How
+ * late each callback runs compared to its period is kept in a histogram and published next to
+ * them once a second.
+ *
+ * <p>Only call from the main robot thread.
+ */
+public class RateScheduler {
+
+  //Offsets are picked on this grid
+  private static final long kOffsetStepMicros = 250;
+
+  private static final RateScheduler INSTANCE = new RateScheduler();
+
+  private final NetworkTable table = NetworkTableInstance.getDefault().getTable("Rates");
+  private final List<Rate> rates = new ArrayList<>();
+  private long lastPublishNanos = System.nanoTime();
+
+  public static RateScheduler getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Adds a periodic callback. Has to be called before {@link #install}.
+   */
+  public void register(String name, double periodSeconds, Runnable callback) {
+    rates.add(new Rate(name, periodSeconds, callback));
+  }
+
+  /**
+   * Picks an offset for every registered callback and adds it to the robot's loop.
+   */
+  public void install(TimedRobot robot) {
+    List<long[]> placed = new ArrayList<>();
+    //The main loop runs at offset 0
+    placed.add(new long[] {toMicros(robot.getPeriod()), 0});
+
+    //Fastest first, they have the least room to move
+    List<Rate> ordered = new ArrayList<>(rates);
+    ordered.sort((a, b) -> Long.compare(a.periodMicros, b.periodMicros));
+    for (Rate rate : ordered) {
+      long bestOffset = 0;
+      long bestDistance = -1;
+      for (long offset = 0; offset < rate.periodMicros; offset += kOffsetStepMicros) {
+        long distance = Long.MAX_VALUE;
+        for (long[] other : placed) {
+          distance = Math.min(distance, separation(rate.periodMicros, offset, other[0], other[1]));
+        }
+        if (distance > bestDistance) {
+          bestDistance = distance;
+          bestOffset = offset;
+        }
+      }
+      placed.add(new long[] {rate.periodMicros, bestOffset});
+
+      table.getEntry(rate.name + "/period ms").setDouble(rate.periodMicros / 1000.0);
+      table.getEntry(rate.name + "/offset ms").setDouble(bestOffset / 1000.0);
+      robot.addPeriodic(rate::run, rate.periodMicros / 1e6, bestOffset / 1e6);
+    }
+  }
+
+  /**
+   * Publishes the jitter of every callback once a second. Runs as deferred work under the
+   * {@link LoopBudget}.
+   */
+  public void publish() {
+    long now = System.nanoTime();
+    if (now - lastPublishNanos >= Constants.kProfilerPublishPeriodSeconds * 1e9) {
+      lastPublishNanos = now;
+      for (Rate rate : rates) {
+        rate.publish();
+      }
+    }
+  }
+
+  /**
+   * Closest two periodic callbacks ever get to each other. Their firing times differ by the
+   * offset difference plus any multiple of the gcd of their periods.
+   */
+  private static long separation(long periodA, long offsetA, long periodB, long offsetB) {
+    long lattice = gcd(periodA, periodB);
+    long difference = Math.floorMod(offsetA - offsetB, lattice);
+    return Math.min(difference, lattice - difference);
+  }
+
+  private static long gcd(long a, long b) {
+    return b == 0 ? a : gcd(b, a % b);
+  }
+
+  private static long toMicros(double seconds) {
+    return Math.round(seconds * 1e6);
+  }
+
+  private class Rate {
+    private final String name;
+    private final long periodMicros;
+    private final long periodNanos;
+    private final Runnable callback;
+    private final LoopProfiler.Section profile;
+
+    private final LogHistogram jitter = new LogHistogram();
+    private final DoublePublisher p50Publisher;
+    private final DoublePublisher p99Publisher;
+    private final DoublePublisher maxPublisher;
+    private long lastRunNanos = 0;
+
+    private Rate(String name, double periodSeconds, Runnable callback) {
+      this.name = name;
+      this.periodMicros = toMicros(periodSeconds);
+      this.periodNanos = periodMicros * 1000;
+      this.callback = callback;
+      profile = LoopProfiler.getInstance().section(name);
+      p50Publisher = table.getDoubleTopic(name + "/jitter p50 ms").publish();
+      p99Publisher = table.getDoubleTopic(name + "/jitter p99 ms").publish();
+      maxPublisher = table.getDoubleTopic(name + "/jitter max ms").publish();
+    }
+
+    private void run() {
+      long now = System.nanoTime();
+      if (lastRunNanos != 0) {
+        jitter.recordNanos(Math.abs(now - lastRunNanos - periodNanos));
+      }
+      lastRunNanos = now;
+
+      profile.start();
+      callback.run();
+      profile.stop();
+    }
+
+    private void publish() {
+      p50Publisher.set(jitter.percentile(0.5) / 1000.0);
+      p99Publisher.set(jitter.percentile(0.99) / 1000.0);
+      maxPublisher.set(jitter.getMax() / 1000.0);
+      jitter.reset();
+    }
+  }
+}
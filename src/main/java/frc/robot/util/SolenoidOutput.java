@@ -0,0 +1,64 @@
+package frc.robot.util;
+
+import edu.wpi.first.wpilibj.Solenoid;
+import frc.robot.Constants;
+
+/**
+ * Only passes a Solenoid.set() through to the PCM when the state changes or the keep-alive
+ * period has run out. Every write to the solenoid has to go through here. Writes sent and
+ * skipped are published under Outputs/ at LOW priority.
+ */
+public class SolenoidOutput {
+
+  private final String name;
+  private final Solenoid solenoid;
+  private final long keepAliveNanos;
+
+  private boolean hasSent = false;
+  private boolean lastOn = false;
+  private long lastSentNanos = 0;
+
+  private volatile int sent = 0;
+  private volatile int suppressed = 0;
+
+  public SolenoidOutput(String name, Solenoid solenoid) {
+    this(name, solenoid, Constants.kOutputKeepAliveSeconds);
+  }
+
+  public SolenoidOutput(String name, Solenoid solenoid, double keepAliveSeconds) {
+    this.name = name;
+    this.solenoid = solenoid;
+    this.keepAliveNanos = (long) (keepAliveSeconds * 1e9);
+    Telemetry telemetry = Telemetry.getInstance();
+    telemetry.addNumber("Outputs/" + name + " Sent", this::getSent, Telemetry.Priority.LOW, 1);
+    telemetry.addNumber("Outputs/" + name + " Suppressed", this::getSuppressed, Telemetry.Priority.LOW, 1);
+  }
+
+  public void set(boolean on) {
+    long now = System.nanoTime();
+    if (hasSent && on == lastOn && now - lastSentNanos < keepAliveNanos) {
+      suppressed++;
+      return;
+    }
+
+    solenoid.set(on);
+    hasSent = true;
+    lastOn = on;
+    lastSentNanos = now;
+    sent++;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  //Number of writes passed through to the PCM
+  public int getSent() {
+    return sent;
+  }
+
+  //Number of set() calls skipped because nothing changed
+  public int getSuppressed() {
+    return suppressed;
+  }
+}
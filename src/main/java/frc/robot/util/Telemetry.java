@@ -0,0 +1,182 @@
+package frc.robot.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleSupplier;
+
+import edu.wpi.first.networktables.BooleanPublisher;
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import frc.robot.Constants;
+
+/**
+ * Dashboard values registered once and published together at the end of the loop instead of
+ * SmartDashboard.put*() calls spread through periodic(). Each value is sampled no faster than its
+ * rate, and only sent when it changed. Keys land in the SmartDashboard table.
+ *
+ * <p>HIGH values go out through {@link #publishHigh()}, registered to run every loop, and the rest
+ * through {@link #publish()}, which can be put off when the loop is busy.
+ *
+ * <p>Only call from the main robot thread.
+ */
+public class Telemetry {
+
+  public enum Priority {
+    //Needed by the drivers during a match
+    HIGH,
+    //Useful while tuning
+    NORMAL,
+    //Nice to have, first to go when the loop is busy
+    LOW
+  }
+
+  private static final Telemetry INSTANCE =
+      new Telemetry(NetworkTableInstance.getDefault().getTable("SmartDashboard"), LoopBudget.getInstance());
+
+  private final NetworkTable table;
+  private final LoopBudget budget;
+  //Sorted by priority so the important values go out first
+  private final List<Entry> entries = new ArrayList<>();
+
+  private long published = 0;
+  private long unchanged = 0;
+  private long shed = 0;
+
+  public static Telemetry getInstance() {
+    return INSTANCE;
+  }
+
+  //For tests
+  Telemetry(NetworkTable table, LoopBudget budget) {
+    this.table = table;
+    this.budget = budget;
+  }
+
+  public void addNumber(String key, DoubleSupplier supplier, Priority priority, double maxRateHz) {
+    DoublePublisher publisher = table.getDoubleTopic(key).publish();
+    add(new Entry(priority, maxRateHz) {
+      private double last = Double.NaN;
+
+      @Override
+      boolean sample() {
+        double value = supplier.getAsDouble();
+        if (Double.compare(value, last) == 0) {
+          return false;
+        }
+        last = value;
+        publisher.set(value);
+        return true;
+      }
+    });
+  }
+
+  public void addBoolean(String key, BooleanSupplier supplier, Priority priority, double maxRateHz) {
+    BooleanPublisher publisher = table.getBooleanTopic(key).publish();
+    add(new Entry(priority, maxRateHz) {
+      private boolean hasValue = false;
+      private boolean last = false;
+
+      @Override
+      boolean sample() {
+        boolean value = supplier.getAsBoolean();
+        if (hasValue && value == last) {
+          return false;
+        }
+        hasValue = true;
+        last = value;
+        publisher.set(value);
+        return true;
+      }
+    });
+  }
+
+  /**
+   * Samples the HIGH values that are due and publishes the ones that changed, whatever is left of
+   * the {@link LoopBudget}. Register with {@link LoopBudget#registerAlways}.
+   */
+  public void publishHigh() {
+    long now = System.nanoTime();
+    for (Entry entry : entries) {
+      if (entry.priority != Priority.HIGH) {
+        //Sorted by priority, nothing HIGH after this
+        return;
+      }
+      if (now - entry.lastSampleNanos >= entry.periodNanos) {
+        sample(entry, now);
+      }
+    }
+  }
+
+  /**
+   * Samples the NORMAL and LOW values that are due and publishes the ones that changed. Call once
+   * per loop, after the scheduler has run. Once the {@link LoopBudget} is used up, values that are
+   * due stay due for the next loop, but never more than kMaxDeferredLoops in a row.
+   */
+  public void publish() {
+    long now = System.nanoTime();
+    for (Entry entry : entries) {
+      if (entry.priority == Priority.HIGH || now - entry.lastSampleNanos < entry.periodNanos) {
+        continue;
+      }
+      if (budget.isExhausted() && entry.deferredInARow < Constants.kMaxDeferredLoops) {
+        entry.deferredInARow++;
+        shed++;
+        continue;
+      }
+      entry.deferredInARow = 0;
+      sample(entry, now);
+    }
+  }
+
+  private void sample(Entry entry, long now) {
+    entry.lastSampleNanos = now;
+    if (entry.sample()) {
+      published++;
+    }
+    else {
+      unchanged++;
+    }
+  }
+
+  //Values sent since startup
+  public long getPublished() {
+    return published;
+  }
+
+  //Samples skipped because the value hadn't changed
+  public long getUnchanged() {
+    return unchanged;
+  }
+
+  //Due samples put off because the loop was out of time
+  public long getShed() {
+    return shed;
+  }
+
+  private void add(Entry entry) {
+    int index = 0;
+    while (index < entries.size() && entries.get(index).priority.compareTo(entry.priority) <= 0) {
+      index++;
+    }
+    entries.add(index, entry);
+  }
+
+  private abstract static class Entry {
+    final Priority priority;
+    final long periodNanos;
+    long lastSampleNanos;
+    int deferredInARow = 0;
+
+    Entry(Priority priority, double maxRateHz) {
+      this.priority = priority;
+      this.periodNanos = (long) (1e9 / maxRateHz);
+      //Due on the first publish
+      lastSampleNanos = System.nanoTime() - periodNanos;
+    }
+
+    //Returns true if the value was sent
+    abstract boolean sample();
+  }
+}
@@ -0,0 +1,45 @@
+package frc.robot.util;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import edu.wpi.first.wpilibj.DriverStation;
+
+/**
+ * Pins threads to a CPU core on Linux (the roboRIO or a desktop simulation) with taskset. Java
+ * has no affinity API, so the kernel thread id comes from /proc/thread-self.
+ */
+public final class ThreadAffinity {
+
+  private ThreadAffinity() {
+  }
+
+  /**
+   * Pins the calling thread to one core.
+   *
+   * @return true if taskset accepted it
+   */
+  public static boolean pinCurrentThread(int core) {
+    try {
+      String tid = Files.readSymbolicLink(Path.of("/proc/thread-self")).getFileName().toString();
+      Process taskset = new ProcessBuilder("taskset", "-p", "-c", Integer.toString(core), tid)
+          .redirectErrorStream(true)
+          .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+          .start();
+      if (taskset.waitFor(1, TimeUnit.SECONDS) && taskset.exitValue() == 0) {
+        return true;
+      }
+      taskset.destroy();
+    }
+    catch (IOException | UnsupportedOperationException e) {
+      //Not Linux, or no taskset
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    DriverStation.reportWarning("Could not pin " + Thread.currentThread().getName() + " to core " + core, false);
+    return false;
+  }
+}
@@ -0,0 +1,117 @@
+package frc.robot.vision;
+
+import java.util.EnumSet;
+
+import edu.wpi.first.networktables.DoubleArraySubscriber;
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableEvent;
+import edu.wpi.first.networktables.NetworkTableInstance;
+
+/**
+ * Talks to the Limelight over NetworkTables. Topics are looked up once, a listener builds a
+ * {@link Frame} the moment each new reading arrives, and mode changes are only sent (and flushed
+ * straight out) when they actually change.
+ *
+ * <p>Frames are read from the t2d array, which carries everything from one image in one value.
+ * Reading tv/tx/ty/ta/tl/cl as separate topics can mix two frames, since each one updates on
+ * its own. Needs Limelight firmware 2024.0 or newer.
+ */
+public class Limelight {
+
+  public static final int kLedPipeline = 0;
+  public static final int kLedOff = 1;
+  public static final int kLedOn = 3;
+
+  public static final int kCamVision = 0;
+  public static final int kCamDriver = 1;
+
+  /**
+   * One Limelight reading. Sequence goes up by one per frame received, use it to tell a new
+   * frame from one already handled.
+   *
+   * @param sequence                 frames received before this one
+   * @param receiveTimestampSeconds  FPGA time the frame arrived at the robot
+   * @param captureTimestampSeconds  FPGA time the image was taken (receive time less latency)
+   * @param hasTarget                whether the pipeline sees a target
+   * @param txDeg                    horizontal offset from crosshair to target
+   * @param tyDeg                    vertical offset from crosshair to target
+   * @param areaPercent              target area, 0 to 100 percent of the image
+   * @param latencySeconds           pipeline plus capture latency
+   */
+  public record Frame(long sequence, double receiveTimestampSeconds, double captureTimestampSeconds,
+      boolean hasTarget, double txDeg, double tyDeg, double areaPercent, double latencySeconds) {
+  }
+
+  private static final Limelight INSTANCE = new Limelight();
+
+  private final NetworkTableInstance inst = NetworkTableInstance.getDefault();
+
+  //Positions in t2d: valid, count, pipeline latency, capture latency, tx, ty, txnc, tync, ta, ...
+  private static final int kT2dValid = 0;
+  private static final int kT2dLatency = 2;
+  private static final int kT2dCaptureLatency = 3;
+  private static final int kT2dTx = 4;
+  private static final int kT2dTy = 5;
+  private static final int kT2dArea = 8;
+
+  private final DoubleArraySubscriber t2d;
+
+  private final DoublePublisher ledModePublisher;
+  private final DoublePublisher camModePublisher;
+  private int ledMode = -1;
+  private int camMode = -1;
+
+  //Written by the NetworkTables listener thread, Frame is immutable
+  private volatile Frame latest = new Frame(0, 0, 0, false, 0, 0, 0, 0);
+
+  public static Limelight getInstance() {
+    return INSTANCE;
+  }
+
+  private Limelight() {
+    NetworkTable table = inst.getTable("limelight");
+    t2d = table.getDoubleArrayTopic("t2d").subscribe(new double[0]);
+
+    ledModePublisher = table.getDoubleTopic("ledMode").publish();
+    camModePublisher = table.getDoubleTopic("camMode").publish();
+
+    //t2d is published once per frame
+    inst.addListener(t2d, EnumSet.of(NetworkTableEvent.Kind.kValueAll), this::onFrame);
+  }
+
+  private void onFrame(NetworkTableEvent event) {
+    //Everything comes from the event's own value, not from a subscriber that may have moved on
+    double[] values = event.valueData.value.getDoubleArray();
+    if (values.length <= kT2dArea) {
+      return;
+    }
+    double receiveTimestamp = event.valueData.value.getTime() * 1e-6;
+    double latencySeconds = (values[kT2dLatency] + values[kT2dCaptureLatency]) / 1000.0;
+    latest = new Frame(latest.sequence() + 1, receiveTimestamp, receiveTimestamp - latencySeconds,
+        values[kT2dValid] == 1, values[kT2dTx], values[kT2dTy], values[kT2dArea], latencySeconds);
+  }
+
+  /**
+   * Returns the newest frame. Never blocks and never touches NetworkTables.
+   */
+  public Frame latest() {
+    return latest;
+  }
+
+  public void setLedMode(int mode) {
+    if (mode != ledMode) {
+      ledMode = mode;
+      ledModePublisher.set(mode);
+      inst.flush();
+    }
+  }
+
+  public void setCamMode(int mode) {
+    if (mode != camMode) {
+      camMode = mode;
+      camModePublisher.set(mode);
+      inst.flush();
+    }
+  }
+}
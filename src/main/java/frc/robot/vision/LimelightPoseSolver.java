@@ -0,0 +1,52 @@
+package frc.robot.vision;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.util.Units;
+import frc.robot.Constants;
+
+/**
+ * Turns a Limelight reading of the Power Port into a robot position. The range comes from the
+ * camera height and pitch, the bearing from the gyro heading, turret angle and tx.
+ */
+public final class LimelightPoseSolver {
+
+  private static final double kHeightDifferenceMeters =
+      Units.inchesToMeters(Constants.kPowerPortTargetHeightInches - Constants.kLimelightHeightInches);
+
+  private LimelightPoseSolver() {
+  }
+
+  /**
+   * Returns the distance from the camera to the target along the floor.
+   *
+   * @return The distance in meters, or NaN if the target is at or below the horizon of the camera.
+   */
+  public static double getDistanceMeters(double tyDeg) {
+    double angleRadians = Units.degreesToRadians(Constants.kLimelightMountAngleDeg + tyDeg);
+    if (angleRadians <= 0) {
+      return Double.NaN;
+    }
+    return kHeightDifferenceMeters / Math.tan(angleRadians);
+  }
+
+  /**
+   * Solves for the robot pose when the image was taken.
+   *
+   * @param poseAtCapture the estimated pose at capture time, only its heading is used
+   * @return The measured pose with the heading of poseAtCapture, or null if ty is unusable.
+   */
+  public static Pose2d solve(Pose2d poseAtCapture, VisionMeasurement measurement) {
+    double distance = getDistanceMeters(measurement.tyDeg());
+    if (Double.isNaN(distance)) {
+      return null;
+    }
+
+    //tx is positive to the right, field angles are positive counter-clockwise
+    Rotation2d bearing = poseAtCapture.getRotation()
+        .plus(Rotation2d.fromDegrees(measurement.turretDeg() - measurement.txDeg()));
+    Translation2d robotToTarget = new Translation2d(distance, bearing);
+    return new Pose2d(Constants.kPowerPortTranslation.minus(robotToTarget), poseAtCapture.getRotation());
+  }
+}
@@ -0,0 +1,12 @@
+package frc.robot.vision;
+
+/**
+ * One Limelight target reading, stamped with the FPGA time the image was captured.
+ *
+ * @param captureTimestampSeconds FPGA time of the image, already back-dated by pipeline and capture latency
+ * @param txDeg horizontal offset from crosshair to target
+ * @param tyDeg vertical offset from crosshair to target
+ * @param turretDeg turret angle when the reading was taken, 0 is robot forward
+ */
+public record VisionMeasurement(double captureTimestampSeconds, double txDeg, double tyDeg, double turretDeg) {
+}
@@ -0,0 +1,110 @@
+package frc.robot.auto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.trajectory.Trajectory;
+import edu.wpi.first.math.trajectory.TrajectoryConfig;
+import edu.wpi.first.math.trajectory.TrajectoryGenerator;
+
+class PackedTrajectoryTest {
+
+  private static final double kStepSeconds = 0.013;
+
+  //An S curve, so heading and curvature both change sign along the way
+  private static final Trajectory kPath = TrajectoryGenerator.generateTrajectory(
+      new Pose2d(0, 0, new Rotation2d()),
+      List.of(new Translation2d(1.5, 0.8), new Translation2d(3, -0.8)),
+      new Pose2d(4.5, 0, new Rotation2d()),
+      new TrajectoryConfig(3, 2));
+
+  @Test
+  void cursorMatchesTrajectorySampleForwards() {
+    PackedTrajectory.Cursor cursor = PackedTrajectory.of(kPath, false).cursor();
+    for (double t = 0; t <= kPath.getTotalTimeSeconds(); t += kStepSeconds) {
+      cursor.sample(t);
+      assertMatches(kPath.sample(t), cursor, 1e-6);
+    }
+  }
+
+  @Test
+  void cursorMatchesTrajectorySampleBackwards() {
+    PackedTrajectory.Cursor cursor = PackedTrajectory.of(kPath, false).cursor();
+    cursor.sample(kPath.getTotalTimeSeconds());
+    for (double t = kPath.getTotalTimeSeconds(); t >= 0; t -= kStepSeconds) {
+      cursor.sample(t);
+      assertMatches(kPath.sample(t), cursor, 1e-6);
+    }
+  }
+
+  @Test
+  void cursorClampsToTheEnds() {
+    PackedTrajectory.Cursor cursor = PackedTrajectory.of(kPath, false).cursor();
+    for (double t : new double[] {-1, kPath.getTotalTimeSeconds() + 1, -0.5, 0, kPath.getTotalTimeSeconds()}) {
+      cursor.sample(t);
+      assertMatches(kPath.sample(t), cursor, 1e-6);
+    }
+  }
+
+  @Test
+  void cursorMatchesAtAndAroundEveryState() {
+    PackedTrajectory.Cursor cursor = PackedTrajectory.of(kPath, false).cursor();
+    for (Trajectory.State state : kPath.getStates()) {
+      for (double t : new double[] {state.timeSeconds - 1e-7, state.timeSeconds, state.timeSeconds + 1e-7}) {
+        cursor.sample(t);
+        assertMatches(kPath.sample(t), cursor, 1e-6);
+      }
+    }
+  }
+
+  @Test
+  void cursorMatchesWhereTheFractionLeavesZeroToOne() {
+    //Hand made states whose kinematics overshoot the next pose (fraction above 1) and fall short of
+    //the start (fraction below 0), with curvature changing so clamping it or not shows
+    Trajectory path = new Trajectory(List.of(
+        new Trajectory.State(0, 2, 0, new Pose2d(0, 0, new Rotation2d()), 0),
+        new Trajectory.State(1, 1, -10, new Pose2d(1, 0, new Rotation2d()), 1),
+        new Trajectory.State(2, 0.5, 0, new Pose2d(2, 0.2, new Rotation2d(0.3)), -2),
+        new Trajectory.State(3, 0.5, 0, new Pose2d(2.5, 0.4, new Rotation2d(0.4)), 0.5)));
+    PackedTrajectory.Cursor cursor = PackedTrajectory.of(path, false).cursor();
+    for (double t = 0; t <= path.getTotalTimeSeconds(); t += 0.05) {
+      cursor.sample(t);
+      assertMatches(path.sample(t), cursor, 1e-6);
+    }
+  }
+
+  @Test
+  void singlePrecisionStaysClose() {
+    PackedTrajectory.Cursor cursor = PackedTrajectory.of(kPath, true).cursor();
+    for (double t = 0; t <= kPath.getTotalTimeSeconds(); t += kStepSeconds) {
+      cursor.sample(t);
+      assertMatches(kPath.sample(t), cursor, 1e-3);
+    }
+  }
+
+  @Test
+  void toTrajectoryKeepsEveryState() {
+    Trajectory unpacked = PackedTrajectory.of(kPath, false).toTrajectory();
+    assertEquals(kPath.getStates().size(), unpacked.getStates().size());
+    assertEquals(kPath.getTotalTimeSeconds(), unpacked.getTotalTimeSeconds(), 1e-12);
+  }
+
+  private static void assertMatches(Trajectory.State expected, PackedTrajectory.Cursor cursor, double tolerance) {
+    String at = " at t=" + expected.timeSeconds;
+    assertEquals(expected.timeSeconds, cursor.getTime(), tolerance, "time" + at);
+    assertEquals(expected.poseMeters.getX(), cursor.getX(), tolerance, "x" + at);
+    assertEquals(expected.poseMeters.getY(), cursor.getY(), tolerance, "y" + at);
+    assertEquals(0, MathUtil.angleModulus(expected.poseMeters.getRotation().getRadians() - cursor.getHeadingRadians()),
+        tolerance, "heading" + at);
+    assertEquals(expected.velocityMetersPerSecond, cursor.getVelocity(), tolerance, "velocity" + at);
+    assertEquals(expected.accelerationMetersPerSecondSq, cursor.getAcceleration(), tolerance, "acceleration" + at);
+    assertEquals(expected.curvatureRadPerMeter, cursor.getCurvature(), tolerance, "curvature" + at);
+  }
+}
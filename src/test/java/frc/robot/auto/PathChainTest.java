@@ -0,0 +1,66 @@
+package frc.robot.auto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.trajectory.Trajectory;
+import edu.wpi.first.math.trajectory.TrajectoryConfig;
+import edu.wpi.first.math.trajectory.TrajectoryGenerator;
+
+class PathChainTest {
+
+  private static final Pose2d kStart = new Pose2d(0, 0, new Rotation2d());
+  private static final Pose2d kJoint = new Pose2d(2, 0.5, new Rotation2d());
+  private static final Pose2d kEnd = new Pose2d(4, 0, new Rotation2d());
+
+  @Test
+  void continuingSegmentsKeepTheirSpeedThroughTheJoint() {
+    TrajectoryConfig config = new TrajectoryConfig(3, 2);
+    Trajectory first = TrajectoryGenerator.generateTrajectory(kStart, List.of(), kJoint, config);
+    Trajectory second = TrajectoryGenerator.generateTrajectory(kJoint, List.of(), kEnd, config);
+
+    Trajectory joined = PathChain.join(List.of(
+        new PathChain.Segment(first, config), new PathChain.Segment(second, config)));
+
+    assertTrue(joined.getTotalTimeSeconds() < first.getTotalTimeSeconds() + second.getTotalTimeSeconds());
+    assertTrue(speedAt(joined, kJoint) > 1, "doesn't stop at the joint");
+    assertEquals(kEnd.getX(), last(joined).poseMeters.getX(), 1e-6);
+    assertEquals(0, last(joined).velocityMetersPerSecond, 1e-6);
+  }
+
+  @Test
+  void reversalsAreFollowedOnFromEachOther() {
+    TrajectoryConfig forward = new TrajectoryConfig(3, 2);
+    TrajectoryConfig reverse = new TrajectoryConfig(3, 2).setReversed(true);
+    Trajectory out = TrajectoryGenerator.generateTrajectory(kStart, List.of(), kJoint, forward);
+    Trajectory back = TrajectoryGenerator.generateTrajectory(kJoint, List.of(), kStart, reverse);
+
+    Trajectory joined = PathChain.join(List.of(
+        new PathChain.Segment(out, forward), new PathChain.Segment(back, reverse)));
+
+    assertEquals(out.getTotalTimeSeconds() + back.getTotalTimeSeconds(), joined.getTotalTimeSeconds(), 1e-9);
+    assertEquals(0, speedAt(joined, kJoint), 1e-6);
+  }
+
+  //Speed at the state closest to a point on the path
+  private static double speedAt(Trajectory trajectory, Pose2d pose) {
+    Trajectory.State closest = trajectory.getStates().get(0);
+    for (Trajectory.State state : trajectory.getStates()) {
+      if (state.poseMeters.getTranslation().getDistance(pose.getTranslation())
+          < closest.poseMeters.getTranslation().getDistance(pose.getTranslation())) {
+        closest = state;
+      }
+    }
+    return Math.abs(closest.velocityMetersPerSecond);
+  }
+
+  private static Trajectory.State last(Trajectory trajectory) {
+    return trajectory.getStates().get(trajectory.getStates().size() - 1);
+  }
+}
@@ -0,0 +1,102 @@
+package frc.robot.auto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.trajectory.Trajectory;
+import edu.wpi.first.math.trajectory.TrajectoryConfig;
+import edu.wpi.first.math.trajectory.TrajectoryGenerator;
+
+class TrajectoryAssetTest {
+
+  private static final Trajectory kForward = TrajectoryGenerator.generateTrajectory(
+      new Pose2d(0, 0, new Rotation2d()),
+      List.of(new Translation2d(1, 0.5)),
+      new Pose2d(2, 1, Rotation2d.fromDegrees(90)),
+      new TrajectoryConfig(3, 2));
+  private static final Trajectory kReverse = TrajectoryGenerator.generateTrajectory(
+      new Pose2d(2, 1, Rotation2d.fromDegrees(90)),
+      List.of(),
+      new Pose2d(0, 0, new Rotation2d()),
+      new TrajectoryConfig(2, 1).setReversed(true));
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void writtenTrajectoriesMapBack() throws IOException {
+    Path file = directory.resolve("trajectories.bin");
+    TrajectoryAsset.write(file, List.of(
+        new TrajectoryAsset.Entry("Forward", 11, 1500, kForward),
+        new TrajectoryAsset.Entry("Reverse", 22, 800, kReverse)));
+
+    TrajectoryAsset asset = TrajectoryAsset.map(file);
+    assertEquals(2, asset.size());
+    assertEquals(1500, asset.getGenerationMicros("Forward"));
+    assertEquals(800, asset.getGenerationMicros("Reverse"));
+    assertStatesEqual(kForward, asset.get("Forward", 11));
+    assertStatesEqual(kReverse, asset.get("Reverse", 22));
+  }
+
+  @Test
+  void otherInputsOrNamesMiss() throws IOException {
+    Path file = directory.resolve("trajectories.bin");
+    TrajectoryAsset.write(file, List.of(new TrajectoryAsset.Entry("Forward", 11, 1500, kForward)));
+
+    TrajectoryAsset asset = TrajectoryAsset.map(file);
+    assertNull(asset.get("Forward", 12));
+    assertNull(asset.getPacked("Missing", 11));
+    assertEquals(0, asset.getGenerationMicros("Missing"));
+  }
+
+  @Test
+  void corruptFileFailsItsChecksum() throws IOException {
+    Path file = directory.resolve("trajectories.bin");
+    TrajectoryAsset.write(file, List.of(new TrajectoryAsset.Entry("Forward", 11, 1500, kForward)));
+    byte[] bytes = Files.readAllBytes(file);
+    bytes[bytes.length / 2] ^= 0x01;
+    Files.write(file, bytes);
+
+    IOException e = assertThrows(IOException.class, () -> TrajectoryAsset.map(file));
+    assertTrue(e.getMessage().contains("checksum"), e.getMessage());
+  }
+
+  @Test
+  void truncatedFileIsRejected() throws IOException {
+    Path file = directory.resolve("trajectories.bin");
+    TrajectoryAsset.write(file, List.of(new TrajectoryAsset.Entry("Forward", 11, 1500, kForward)));
+    Files.write(file, Arrays.copyOf(Files.readAllBytes(file), 8));
+
+    assertThrows(IOException.class, () -> TrajectoryAsset.map(file));
+  }
+
+  //States are stored as float32
+  private static void assertStatesEqual(Trajectory expected, Trajectory actual) {
+    assertEquals(expected.getStates().size(), actual.getStates().size());
+    for (int i = 0; i < expected.getStates().size(); i++) {
+      Trajectory.State e = expected.getStates().get(i);
+      Trajectory.State a = actual.getStates().get(i);
+      assertEquals(e.timeSeconds, a.timeSeconds, 1e-5);
+      assertEquals(e.poseMeters.getX(), a.poseMeters.getX(), 1e-5);
+      assertEquals(e.poseMeters.getY(), a.poseMeters.getY(), 1e-5);
+      assertEquals(e.poseMeters.getRotation().getRadians(), a.poseMeters.getRotation().getRadians(), 1e-5);
+      assertEquals(e.velocityMetersPerSecond, a.velocityMetersPerSecond, 1e-5);
+      assertEquals(e.accelerationMetersPerSecondSq, a.accelerationMetersPerSecondSq, 1e-5);
+      assertEquals(e.curvatureRadPerMeter, a.curvatureRadPerMeter, 1e-5);
+    }
+  }
+}
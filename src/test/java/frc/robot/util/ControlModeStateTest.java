@@ -0,0 +1,103 @@
+package frc.robot.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class ControlModeStateTest {
+
+  private static final int kThreads = 8;
+  private static final int kSetsPerThread = 20_000;
+
+  private enum Mode {
+    A, B, C, D
+  }
+
+  @Test
+  void concurrentSetsRunHooksOncePerChange() throws Exception {
+    ControlModeState<Mode> state = new ControlModeState<>(Mode.A);
+    AtomicLong transitionHooks = new AtomicLong();
+    Map<Mode, AtomicLong> enterHooks = new EnumMap<>(Mode.class);
+    for (Mode mode : Mode.values()) {
+      AtomicLong count = new AtomicLong();
+      enterHooks.put(mode, count);
+      state.onEnter(mode, count::incrementAndGet);
+    }
+    state.onTransition((from, to) -> {
+      assertTrue(from != to);
+      transitionHooks.incrementAndGet();
+    });
+
+    //What the setting threads saw: real changes overall and into each mode
+    AtomicLong changes = new AtomicLong();
+    Map<Mode, AtomicLong> entered = new EnumMap<>(Mode.class);
+    for (Mode mode : Mode.values()) {
+      entered.put(mode, new AtomicLong());
+    }
+
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(kThreads);
+    List<Future<Mode>> lastSet = new ArrayList<>();
+    for (int i = 0; i < kThreads; i++) {
+      Random random = new Random(i);
+      lastSet.add(executor.submit(() -> {
+        start.await();
+        Mode next = null;
+        for (int j = 0; j < kSetsPerThread; j++) {
+          next = Mode.values()[random.nextInt(Mode.values().length)];
+          if (state.set(next) != next) {
+            changes.incrementAndGet();
+            entered.get(next).incrementAndGet();
+          }
+        }
+        return next;
+      }));
+    }
+    start.countDown();
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+    List<Mode> finalCandidates = new ArrayList<>();
+    for (Future<Mode> future : lastSet) {
+      finalCandidates.add(future.get());
+    }
+    assertTrue(finalCandidates.contains(state.get()), "final mode was the last set by some thread");
+    assertTrue(changes.get() > 0);
+    assertEquals(changes.get(), state.getTransitions());
+    assertEquals(changes.get(), transitionHooks.get());
+    for (Mode mode : Mode.values()) {
+      assertEquals(entered.get(mode).get(), enterHooks.get(mode).get(), "onEnter hooks for " + mode);
+    }
+  }
+
+  @Test
+  void settingTheSameModeIsNotATransition() {
+    ControlModeState<Mode> state = new ControlModeState<>(Mode.A);
+    AtomicLong hooks = new AtomicLong();
+    state.onTransition((from, to) -> hooks.incrementAndGet());
+
+    assertEquals(Mode.A, state.set(Mode.A));
+    assertEquals(0, state.getTransitions());
+    assertEquals(0, hooks.get());
+
+    assertFalse(state.compareAndSet(Mode.B, Mode.C));
+    assertTrue(state.compareAndSet(Mode.A, Mode.B));
+    assertEquals(Mode.B, state.get());
+    assertEquals(1, state.getTransitions());
+    assertEquals(1, hooks.get());
+  }
+}
@@ -0,0 +1,79 @@
+package frc.robot.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import frc.robot.Constants;
+
+class TelemetryTest {
+
+  private static final int kLoops = 200;
+  //Due every time it is looked at
+  private static final double kEveryLoopHz = 1e9;
+
+  private NetworkTableInstance instance;
+  private NetworkTable table;
+
+  @BeforeEach
+  void setUp() {
+    instance = NetworkTableInstance.create();
+    table = instance.getTable("SmartDashboard");
+  }
+
+  @AfterEach
+  void tearDown() {
+    instance.close();
+  }
+
+  @Test
+  void highValuesPublishWhenTheBudgetIsExhausted() {
+    //No budget at all, so every loop is over it
+    LoopBudget budget = new LoopBudget(0);
+    Telemetry telemetry = new Telemetry(table, budget);
+    AtomicInteger highSamples = new AtomicInteger();
+    AtomicInteger lowSamples = new AtomicInteger();
+    telemetry.addNumber("High", highSamples::incrementAndGet, Telemetry.Priority.HIGH, kEveryLoopHz);
+    telemetry.addNumber("Low", lowSamples::incrementAndGet, Telemetry.Priority.LOW, kEveryLoopHz);
+    budget.registerAlways("Telemetry HIGH", telemetry::publishHigh);
+    budget.register("Telemetry", telemetry::publish);
+
+    for (int i = 1; i <= kLoops; i++) {
+      budget.beginLoop();
+      budget.runDeferred();
+      assertEquals(i, highSamples.get(), "HIGH sampled on loop " + i);
+      assertEquals(i, table.getEntry("High").getDouble(-1), "HIGH published on loop " + i);
+    }
+
+    assertTrue(lowSamples.get() < kLoops / Constants.kMaxDeferredLoops, "LOW was shed");
+    assertTrue(budget.getShed("Telemetry") > 0);
+    assertEquals(0, budget.getShed("Telemetry HIGH"));
+    assertTrue(telemetry.getShed() > 0);
+  }
+
+  @Test
+  void everythingPublishesWithinTheBudget() {
+    LoopBudget budget = new LoopBudget(1000);
+    Telemetry telemetry = new Telemetry(table, budget);
+    AtomicInteger lowSamples = new AtomicInteger();
+    telemetry.addNumber("Low", lowSamples::incrementAndGet, Telemetry.Priority.LOW, kEveryLoopHz);
+    budget.registerAlways("Telemetry HIGH", telemetry::publishHigh);
+    budget.register("Telemetry", telemetry::publish);
+
+    for (int i = 1; i <= kLoops; i++) {
+      budget.beginLoop();
+      budget.runDeferred();
+    }
+
+    assertEquals(kLoops, lowSamples.get());
+    assertEquals(kLoops, table.getEntry("Low").getDouble(-1));
+    assertEquals(0, telemetry.getShed());
+  }
+}